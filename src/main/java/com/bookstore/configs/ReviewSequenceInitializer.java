@@ -0,0 +1,64 @@
+package com.bookstore.configs;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.bookstore.entity.Review;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Moves the review ID sequence past the stored reviews before the application serves requests.
+ *
+ * On a database whose reviews were numbered by an identity column, ddl-auto
+ * creates the sequence starting at 1, and every insert would collide with an
+ * existing review. Hibernate only draws its first block of IDs on the first
+ * insert, so aligning the sequence once the schema is updated is enough, and
+ * it never moves the sequence backwards. Where the database has no sequences,
+ * MySQL among them, Hibernate emulates the sequence with a one-row table.
+ */
+@Component
+@DependsOn("entityManagerFactory") // the schema must be up to date
+public class ReviewSequenceInitializer {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Makes sure the next block drawn from the sequence starts after the highest review ID.
+	 */
+	@PostConstruct
+	public void alignReviewSequence() {
+		long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(review_id), 0) FROM review", Long.class);
+
+		// Hibernate hands out the block of IDs ending at the value it draws
+		long next = maxId + Review.ID_ALLOCATION_SIZE;
+
+		Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+		boolean moved;
+		if (dialect.getSequenceSupport().supportsSequences()) {
+			// Drawing a value only skips a block, which is harmless
+			long drawn = jdbcTemplate.queryForObject(
+				dialect.getSequenceSupport().getSequenceNextValString(Review.ID_SEQUENCE), Long.class);
+			moved = drawn < next;
+			if (moved) {
+				jdbcTemplate.execute("ALTER SEQUENCE " + Review.ID_SEQUENCE + " RESTART WITH " + next);
+			}
+		} else {
+			moved = jdbcTemplate.update(
+				"UPDATE " + Review.ID_SEQUENCE + " SET next_val = ? WHERE next_val < ?", next, next) > 0;
+		}
+
+		if (moved) {
+			System.out.println("Moved " + Review.ID_SEQUENCE + " to " + next + ", past the existing reviews");
+		}
+	}
+}
@@ -11,10 +11,13 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import com.bookstore.security.AuthEntryPointJwt;
 import com.bookstore.security.AuthTokenFilter;
+import com.bookstore.security.IdempotencyFilter;
+import com.bookstore.security.IdempotencyStore;
 import com.bookstore.services.UserDetailsServiceImpl;
 
 /**
@@ -33,6 +36,9 @@ public class SecurityConfiguration {
 	@Autowired
 	private AuthEntryPointJwt unauthorizedHandler;
 
+	@Autowired
+	private IdempotencyStore idempotencyStore;
+
 	/**
 	 * Bean for JWT authentication filter.
 	 * Intercepts incoming requests to extract and validate JWT tokens.
@@ -67,6 +73,7 @@ public class SecurityConfiguration {
 	 * - Sets stateless session policy
 	 * - Configures public and protected endpoints
 	 * - Adds JWT token filter
+	 * - Adds Idempotency-Key handling behind authorization, so keys are scoped to the user
 	 */
 	@Bean
 	public SecurityFilterChain filterChain(HttpSecurity httpSecurity) throws Exception {
@@ -83,6 +90,8 @@ public class SecurityConfiguration {
 
 		httpSecurity.authenticationProvider(authenticationProvider());
 		httpSecurity.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+		// Not a bean, so it runs only in the security chain and not a second time as a servlet filter
+		httpSecurity.addFilterAfter(new IdempotencyFilter(idempotencyStore), AuthorizationFilter.class);
 
 		return httpSecurity.build();
 	}
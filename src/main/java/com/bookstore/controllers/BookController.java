@@ -1,19 +1,30 @@
 package com.bookstore.controllers;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.bookstore.entity.Book;
 import com.bookstore.payload.request.BookRequest;
-import com.bookstore.payload.response.BookResponse;
-import com.bookstore.payload.response.ReviewResponse;
+import com.bookstore.payload.response.BookPageResponse;
+import com.bookstore.payload.response.BookSummaryResponse;
+import com.bookstore.payload.response.ContentSearchHitResponse;
+import com.bookstore.payload.response.RatingHistogramResponse;
+import com.bookstore.payload.response.TrendingBookResponse;
+import com.bookstore.services.BookContentReader;
+import com.bookstore.services.CatalogVersion;
 import com.bookstore.services.BookService;
 import com.bookstore.services.UserDetailsImpl;
 
@@ -26,6 +37,9 @@ import jakarta.validation.Valid;
 @RequestMapping("/book")
 public class BookController {
 
+	// Clients may keep responses but must revalidate them with their entity tag
+	private static final String REVALIDATE = CacheControl.noCache().cachePrivate().getHeaderValue();
+
 	@Autowired
 	private BookService bookService;
 
@@ -62,88 +76,178 @@ public class BookController {
 	}
 
 	/**
-	 * Retrieves all books with associated reviews and author info.
+	 * Retrieves book summaries (author, rating and review count), one keyset page at a time.
+	 * The whole catalog is only returned when explicitly requested with {@code unbounded=true}.
+	 * The content of a book is served by {@code /book/{id}/content}.
 	 *
-	 * @return list of BookResponse objects
+	 * @param after     ID of the last book of the previous page (omit for the first page)
+	 * @param size      number of books per page (default is 20)
+	 * @param unbounded opt-in flag to return every book as a plain list
+	 * @return page of BookSummaryResponse objects with the cursor of the next page
 	 */
 	@GetMapping("/all-books")
-	public ResponseEntity<List<BookResponse>> getAllBooks() {
-		List<Book> books = bookService.getAllBooks();
-		List<BookResponse> bookResponses = books.stream()
-			.map(book -> new BookResponse(
-				book.getBookId(),
-				book.getTitle(),
-				book.getContent(),
-				book.getAuthor().getUsername(),
-				book.getReviews().stream()
-					.map(review -> new ReviewResponse(
-						review.getReviewer().getUsername(),
-						review.getRating(),
-						review.getComment(),
-						review.getTimestamp()
-					))
-					.collect(Collectors.toList())
-			))
-			.collect(Collectors.toList());
-
-		return new ResponseEntity<>(bookResponses, HttpStatus.OK);
+	public ResponseEntity<?> getAllBooks(@RequestParam(required = false) Integer after,
+	                                     @RequestParam(defaultValue = "20") int size,
+	                                     @RequestParam(defaultValue = "false") boolean unbounded) {
+		if (unbounded) {
+			List<BookSummaryResponse> books = bookService.getAllBooks();
+			return new ResponseEntity<>(books, HttpStatus.OK);
+		}
+
+		Slice<BookSummaryResponse> page = bookService.getBooksAfter(after, size);
+		List<BookSummaryResponse> books = page.getContent();
+
+		// The next cursor is the last ID of this page, only when more books follow
+		Integer nextCursor = page.hasNext() && !books.isEmpty()
+			? books.get(books.size() - 1).getBookId()
+			: null;
+
+		return new ResponseEntity<>(new BookPageResponse(books, nextCursor), HttpStatus.OK);
+	}
+
+	/**
+	 * Streams the content of a book as plain UTF-8 text.
+	 * A single {@code Range: bytes=} range is answered with PARTIAL_CONTENT; the content
+	 * is read from the database chunk by chunk, so large books never sit whole on the heap.
+	 *
+	 * @param id    the ID of the book
+	 * @param range optional Range header, multiple ranges are answered with the whole content
+	 * @return the content or the requested range, NOT_FOUND if the book does not exist,
+	 *         or REQUESTED_RANGE_NOT_SATISFIABLE if the range starts past the end
+	 */
+	@GetMapping("/{id}/content")
+	public ResponseEntity<StreamingResponseBody> getBookContent(@PathVariable int id,
+	                                                            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+		BookContentReader.StoredContent content = bookService.openBookContent(id);
+		long length = content.getLength();
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+		headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+		// A malformed Range header is ignored, as if it had not been sent
+		List<HttpRange> ranges = List.of();
+		if (range != null) {
+			try {
+				ranges = HttpRange.parseRanges(range);
+			} catch (IllegalArgumentException e) {
+				ranges = List.of();
+			}
+		}
+
+		long start = 0;
+		long end = length - 1;
+		HttpStatus status = HttpStatus.OK;
+		if (ranges.size() == 1) {
+			start = ranges.get(0).getRangeStart(length);
+			end = ranges.get(0).getRangeEnd(length);
+			if (start >= length || start > end) {
+				headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+				return new ResponseEntity<>(headers, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+			}
+			headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+			status = HttpStatus.PARTIAL_CONTENT;
+		}
+		headers.setContentLength(end - start + 1);
+
+		long first = start;
+		long last = end;
+		StreamingResponseBody body = out -> bookService.copyBookContent(content, first, last, out);
+		return new ResponseEntity<>(body, headers, status);
+	}
+
+	/**
+	 * Returns the number of reviews of a book per rating, from 1 to 5 stars,
+	 * so the rating distribution is shown without downloading the reviews.
+	 *
+	 * @param id the ID of the book
+	 * @return the rating histogram, or NOT_FOUND if the book does not exist
+	 */
+	@GetMapping("/{id}/ratings")
+	public ResponseEntity<RatingHistogramResponse> getRatingHistogram(@PathVariable int id) {
+		RatingHistogramResponse histogram = bookService.getRatingHistogram(id);
+		return new ResponseEntity<>(histogram, HttpStatus.OK);
 	}
 
 	/**
 	 * Searches for books by title containing the given keyword.
+	 * Repeated keywords are answered from the search result cache.
 	 *
 	 * @param keyword the keyword to search in titles
-	 * @return list of matching BookResponse objects
+	 * @return list of matching BookSummaryResponse objects
 	 */
 	@GetMapping("/search")
-	public ResponseEntity<List<BookResponse>> searchBooks(@RequestParam String keyword) {
-		List<Book> books = bookService.searchBooksByTitle(keyword);
-		List<BookResponse> bookResponses = books.stream()
-			.map(book -> new BookResponse(
-				book.getBookId(),
-				book.getTitle(),
-				book.getContent(),
-				book.getAuthor().getUsername(),
-				book.getReviews().stream()
-					.map(review -> new ReviewResponse(
-						review.getReviewer().getUsername(),
-						review.getRating(),
-						review.getComment(),
-						review.getTimestamp()
-					))
-					.collect(Collectors.toList())
-			))
-			.collect(Collectors.toList());
-
-		return new ResponseEntity<>(bookResponses, HttpStatus.OK);
+	public ResponseEntity<List<BookSummaryResponse>> searchBooks(@RequestParam String keyword) {
+		List<BookSummaryResponse> books = bookService.searchBooksByTitle(keyword);
+
+		return new ResponseEntity<>(books, HttpStatus.OK);
+	}
+
+	/**
+	 * Suggests books whose title starts with the typed prefix, for autocomplete.
+	 *
+	 * @param prefix the start of the title typed so far
+	 * @param limit  the number of suggestions to return (default is 10)
+	 * @return list of best-rated matching BookSummaryResponse objects
+	 */
+	@GetMapping("/suggest")
+	public ResponseEntity<List<BookSummaryResponse>> suggest(@RequestParam String prefix,
+	                                                         @RequestParam(defaultValue = "10") int limit) {
+		List<BookSummaryResponse> books = bookService.suggestTitles(prefix, limit);
+		return new ResponseEntity<>(books, HttpStatus.OK);
+	}
+
+	/**
+	 * Searches inside the content of books, best matches first.
+	 *
+	 * @param q     free text query
+	 * @param limit the number of hits to return (default is 10)
+	 * @return list of matching books with their relevance score
+	 */
+	@GetMapping("/search/content")
+	public ResponseEntity<List<ContentSearchHitResponse>> searchContent(@RequestParam String q,
+	                                                                    @RequestParam(defaultValue = "10") int limit) {
+		List<ContentSearchHitResponse> hits = bookService.searchBooksByContent(q, limit);
+		return new ResponseEntity<>(hits, HttpStatus.OK);
 	}
 
 	/**
 	 * Returns a list of top-rated books, limited by the given count.
+	 * Served from the in-memory leaderboard, so only summaries are returned.
+	 * Tagged with the catalog version: a matching If-None-Match is answered with
+	 * NOT_MODIFIED before the leaderboard is read. Both are local to this node,
+	 * see {@link CatalogVersion} for running several nodes.
 	 *
-	 * @param limit the number of top books to return (default is 10)
-	 * @return list of top BookResponse objects
+	 * @param limit      the number of top books to return (default is 10)
+	 * @param webRequest the request, checked for If-None-Match and If-Modified-Since
+	 * @return list of top BookSummaryResponse objects, or nothing when not modified
 	 */
 	@GetMapping("/top")
-	public ResponseEntity<List<BookResponse>> getTopBooks(@RequestParam(defaultValue = "10") int limit) {
-		List<Book> books = bookService.getTopBooksByRating(limit);
-		List<BookResponse> bookResponses = books.stream()
-			.map(book -> new BookResponse(
-				book.getBookId(),
-				book.getTitle(),
-				book.getContent(),
-				book.getAuthor().getUsername(),
-				book.getReviews().stream()
-					.map(review -> new ReviewResponse(
-						review.getReviewer().getUsername(),
-						review.getRating(),
-						review.getComment(),
-						review.getTimestamp()
-					))
-					.collect(Collectors.toList())
-			))
-			.collect(Collectors.toList());
-
-		return new ResponseEntity<>(bookResponses, HttpStatus.OK);
+	public ResponseEntity<List<BookSummaryResponse>> getTopBooks(@RequestParam(defaultValue = "10") int limit,
+	                                                             ServletWebRequest webRequest) {
+		// Read the version before the data, so the tag is never newer than the body
+		CatalogVersion version = bookService.getCatalogVersion();
+		webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE);
+		if (webRequest.checkNotModified(version.getETag(), version.getLastModified())) {
+			return null;
+		}
+
+		List<BookSummaryResponse> books = bookService.getTopBooksByRating(limit);
+		return new ResponseEntity<>(books, HttpStatus.OK);
+	}
+
+	/**
+	 * Returns the books reviewed the most within a sliding time window.
+	 * Served from an in-memory ranking refreshed every few seconds.
+	 *
+	 * @param window the window, "1h" (default) or "24h"
+	 * @param limit  the number of books to return (default is 10)
+	 * @return list of TrendingBookResponse objects, most reviewed first
+	 */
+	@GetMapping("/trending")
+	public ResponseEntity<List<TrendingBookResponse>> getTrendingBooks(@RequestParam(defaultValue = "1h") String window,
+	                                                                   @RequestParam(defaultValue = "10") int limit) {
+		List<TrendingBookResponse> books = bookService.getTrendingBooks(window, limit);
+		return new ResponseEntity<>(books, HttpStatus.OK);
 	}
 }
@@ -0,0 +1,42 @@
+package com.bookstore.controllers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bookstore.metrics.MetricsSource;
+
+/**
+ * REST controller exposing the metrics of in-process caches, queues and indexes.
+ */
+@RestController
+@RequestMapping("/admin")
+public class MetricsController {
+
+	@Autowired
+	private List<MetricsSource> metricsSources;
+
+	/**
+	 * Returns the current metrics of every component, grouped by component name.
+	 * Restricted to administrators.
+	 *
+	 * @return metric values by component and metric name
+	 */
+	@GetMapping("/metrics")
+	@PreAuthorize("hasAuthority('ADMIN')")
+	public ResponseEntity<Map<String, Map<String, Number>>> getMetrics() {
+		Map<String, Map<String, Number>> metrics = new TreeMap<>();
+		for (MetricsSource source : metricsSources) {
+			metrics.put(source.getMetricsName(), new TreeMap<>(source.getMetrics()));
+		}
+		return new ResponseEntity<>(metrics, HttpStatus.OK);
+	}
+}
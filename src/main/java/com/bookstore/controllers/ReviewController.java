@@ -1,19 +1,27 @@
 package com.bookstore.controllers;
 
+import java.time.ZoneId;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import com.bookstore.entity.Review;
 import com.bookstore.payload.request.ReviewRequest;
+import com.bookstore.payload.response.BulkReviewResponse;
+import com.bookstore.payload.response.ReviewPageResponse;
 import com.bookstore.payload.response.ReviewResponse;
+import com.bookstore.repository.BookRevisionView;
 import com.bookstore.services.ReviewService;
 import com.bookstore.services.UserDetailsImpl;
 
@@ -26,6 +34,9 @@ import jakarta.validation.Valid;
 @RequestMapping("/authenticated/review")
 public class ReviewController {
 
+	// Clients may keep responses but must revalidate them with their entity tag
+	private static final String REVALIDATE = CacheControl.noCache().cachePrivate().getHeaderValue();
+
 	@Autowired
 	private ReviewService reviewService;
 
@@ -34,7 +45,7 @@ public class ReviewController {
 	 *
 	 * @param bookId        the ID of the book to review
 	 * @param reviewRequest the review details including rating and comment
-	 * @return success message with CREATED status
+	 * @return success message with CREATED status, or ACCEPTED when the review is queued but not committed yet
 	 */
 	@PostMapping(path = "/write/{book_id}", consumes = MediaType.APPLICATION_JSON_VALUE)
 	public ResponseEntity<?> writeReview(@PathVariable("book_id") int bookId,
@@ -50,23 +61,70 @@ public class ReviewController {
 		request.setRating(reviewRequest.getRating());
 		request.setComment(reviewRequest.getComment());
 
-		reviewService.saveReview(request);
+		// A review queued for write-behind is accepted but not committed yet
+		if (!reviewService.saveReview(request)) {
+			return new ResponseEntity<>("Review accepted", HttpStatus.ACCEPTED);
+		}
 
 		return new ResponseEntity<>("Review created successfully", HttpStatus.CREATED);
 	}
 
 	/**
-	 * Fetches all reviews associated with a specific book.
+	 * Saves a batch of reviews imported from partner sites in one transaction.
+	 * Invalid reviews are reported by position and skipped; the others are saved.
+	 * Restricted to administrators.
+	 *
+	 * @param reviewRequests the reviews, each with book ID, reviewer username, rating and comment
+	 * @return the number of saved reviews and the errors of the rejected ones
+	 */
+	@PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+	@PreAuthorize("hasAuthority('ADMIN')")
+	public ResponseEntity<BulkReviewResponse> writeReviews(@RequestBody List<ReviewRequest> reviewRequests) {
+		BulkReviewResponse response = reviewService.saveReviews(reviewRequests);
+		return new ResponseEntity<>(response, HttpStatus.OK);
+	}
+
+	/**
+	 * Fetches the reviews of a specific book, most recent first, one keyset page at a time.
+	 * Every review is only returned when explicitly requested with {@code unbounded=true}.
+	 * Tagged with the review revision of the book: a matching If-None-Match is
+	 * answered with NOT_MODIFIED before any review is loaded.
 	 *
-	 * @param bookId the ID of the book
-	 * @return list of ReviewResponse DTOs
+	 * @param bookId     the ID of the book
+	 * @param after      cursor returned with the previous page (omit for the first page)
+	 * @param size       number of reviews per page (default is 20)
+	 * @param unbounded  opt-in flag to return every review as a plain list
+	 * @param webRequest the request, checked for If-None-Match and If-Modified-Since
+	 * @return page of ReviewResponse DTOs with the cursor of the next page, or nothing when not modified
 	 */
 	@GetMapping("/get-reviews-of/{book_id}")
-	public ResponseEntity<?> getReviewsOf(@PathVariable("book_id") int bookId) {
+	public ResponseEntity<?> getReviewsOf(@PathVariable("book_id") int bookId,
+	                                      @RequestParam(required = false) String after,
+	                                      @RequestParam(defaultValue = "20") int size,
+	                                      @RequestParam(defaultValue = "false") boolean unbounded,
+	                                      ServletWebRequest webRequest) {
+		// Read the revision before the reviews, so the tag is never newer than the body
+		BookRevisionView revision = reviewService.getReviewsRevision(bookId).orElse(null);
+		if (revision != null) {
+			long lastModified = revision.getLastModified() == null
+				? -1
+				: revision.getLastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+			webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE);
+			if (webRequest.checkNotModified("\"" + revision.getRevision() + "\"", lastModified)) {
+				return null;
+			}
+		}
+
+		if (!unbounded) {
+			ReviewPageResponse page = reviewService.getReviewsAfter(bookId, after, size);
+			return new ResponseEntity<>(page, HttpStatus.OK);
+		}
+
 		List<Review> reviews = reviewService.getReviewsOf(bookId);
 
 		List<ReviewResponse> reviewResponses = reviews.stream()
 			.map(review -> new ReviewResponse(
+				review.getReviewId(),
 				review.getReviewer().getUsername(),
 				review.getRating(),
 				review.getComment(),
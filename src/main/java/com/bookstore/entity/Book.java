@@ -1,13 +1,17 @@
 package com.bookstore.entity;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -17,8 +21,11 @@ import lombok.NoArgsConstructor;
 
 /**
  * Entity representing a Book in the system.
+ * Rating aggregates are indexed so top-rated books are read with a bounded index scan.
+ * The content lives in {@link BookContent} and is never loaded with the book.
  */
 @Entity
+@Table(indexes = @Index(name = "idx_book_rating", columnList = "average_rating DESC, review_count DESC"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -37,12 +44,6 @@ public class Book {
     @NotBlank(message = "Title of the book is mandatory")
     private String title;
 
-    /**
-     * Content or description of the book.
-     */
-    @NotBlank(message = "Content of the book is mandatory")
-    private String content;
-
     /**
      * The author of the book.
      * Maps to UserEntity, typically an Author.
@@ -58,4 +59,31 @@ public class Book {
      */
     @OneToMany(mappedBy = "book")
     private List<Review> reviews = new ArrayList<>();
+
+    /**
+     * Average rating of all reviews of this book (0 when not reviewed).
+     * Maintained transactionally whenever a review is saved.
+     */
+    @Column(name = "average_rating", nullable = false)
+    private double averageRating;
+
+    /**
+     * Number of reviews of this book.
+     * Maintained transactionally whenever a review is saved.
+     */
+    @Column(name = "review_count", nullable = false)
+    private int reviewCount;
+
+    /**
+     * Revision of the reviews of this book, incremented whenever a review is saved.
+     * Serves as the entity tag of the review list, so it can be checked without loading reviews.
+     */
+    @Column(name = "revision", nullable = false)
+    private long revision;
+
+    /**
+     * Time of the last saved review of this book (null until the first review).
+     */
+    @Column(name = "last_modified")
+    private LocalDateTime lastModified;
 }
@@ -0,0 +1,77 @@
+package com.bookstore.entity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import org.hibernate.Length;
+
+import com.bookstore.helpers.CompressedContentConverter;
+import com.bookstore.helpers.ContentCodec;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotBlank;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Entity holding the full text of a Book.
+ * Kept in its own table so that loading books never reads their content;
+ * it is only fetched when the text itself is requested.
+ */
+@Entity
+@Table(name = "book_content")
+@Data
+@NoArgsConstructor
+public class BookContent {
+
+    /**
+     * Identifier of the book, shared with the Book entity.
+     */
+    @Id
+    private Integer bookId;
+
+    /**
+     * The book this content belongs to.
+     */
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "book_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Book book;
+
+    /**
+     * Content or description of the book.
+     * Stored compressed, see {@link ContentCodec}.
+     */
+    @Lob
+    @Convert(converter = CompressedContentConverter.class)
+    @Column(nullable = false, length = Length.LONG32)
+    @NotBlank(message = "Content of the book is mandatory")
+    private String content;
+
+    /**
+     * Time the content was stored, in milliseconds, so the content search index can
+     * tell which books changed since it last wrote its segments (null for older rows).
+     */
+    @Column(name = "stored_at")
+    private LocalDateTime storedAt;
+
+    public BookContent(Book book, String content) {
+        this.book = book;
+        this.content = content;
+        this.storedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+}
@@ -0,0 +1,86 @@
+package com.bookstore.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Number of reviews of a Book per rating, one row of five counters per book.
+ * Maintained transactionally whenever a review is saved; a book without
+ * reviews may have no row, which reads as five zero counters.
+ */
+@Entity
+@Table(name = "book_rating_histogram")
+@Data
+@NoArgsConstructor
+public class BookRatingHistogram {
+
+    /**
+     * Identifier of the book, shared with the Book entity.
+     */
+    @Id
+    private Integer bookId;
+
+    /**
+     * The book these counters belong to.
+     */
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "book_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Book book;
+
+    /**
+     * Number of 1-star reviews.
+     */
+    @Column(name = "one_star", nullable = false)
+    private int oneStar;
+
+    /**
+     * Number of 2-star reviews.
+     */
+    @Column(name = "two_stars", nullable = false)
+    private int twoStars;
+
+    /**
+     * Number of 3-star reviews.
+     */
+    @Column(name = "three_stars", nullable = false)
+    private int threeStars;
+
+    /**
+     * Number of 4-star reviews.
+     */
+    @Column(name = "four_stars", nullable = false)
+    private int fourStars;
+
+    /**
+     * Number of 5-star reviews.
+     */
+    @Column(name = "five_stars", nullable = false)
+    private int fiveStars;
+
+    /**
+     * @param book  the reviewed book
+     * @param stars number of reviews per rating, from 1 star at index 0 to 5 stars at index 4
+     */
+    public BookRatingHistogram(Book book, int[] stars) {
+        this.book = book;
+        this.oneStar = stars[0];
+        this.twoStars = stars[1];
+        this.threeStars = stars[2];
+        this.fourStars = stars[3];
+        this.fiveStars = stars[4];
+    }
+}
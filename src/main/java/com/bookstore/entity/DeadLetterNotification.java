@@ -0,0 +1,71 @@
+package com.bookstore.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Review notification given up after its last retry, kept for inspection and manual replay.
+ */
+@Entity
+@Table(name = "dead_letter_notification")
+@Data
+@NoArgsConstructor
+public class DeadLetterNotification {
+
+    /**
+     * Unique identifier of the dead letter.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Email address of the author the notification was for.
+     */
+    private String authorEmail;
+
+    /**
+     * Title of the reviewed book.
+     */
+    private String bookTitle;
+
+    /**
+     * Number of new reviews the notification reported.
+     */
+    private int reviewCount;
+
+    /**
+     * Number of failed sends.
+     */
+    private int attempts;
+
+    /**
+     * Error of the last send.
+     */
+    @Column(length = 1000)
+    private String lastError;
+
+    /**
+     * Timestamp of the last send.
+     */
+    private LocalDateTime failedAt;
+
+    public DeadLetterNotification(String authorEmail, String bookTitle, int reviewCount, int attempts,
+            String lastError, LocalDateTime failedAt) {
+        this.authorEmail = authorEmail;
+        this.bookTitle = bookTitle;
+        this.reviewCount = reviewCount;
+        this.attempts = attempts;
+        this.lastError = lastError;
+        this.failedAt = failedAt;
+    }
+}
@@ -0,0 +1,92 @@
+package com.bookstore.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Review notification waiting to be sent.
+ * Written in the transaction of the reviews it reports, so a notification
+ * exists exactly when its reviews were committed, and deleted once the digest
+ * reporting it was sent or given up as a dead letter.
+ * Due notifications are claimed in due order; the waiting notifications of a
+ * book are found by book to join its digest.
+ */
+@Entity
+@Table(name = "notification_outbox", indexes = {
+    @Index(name = "idx_notification_outbox_due", columnList = "next_attempt_at, id"),
+    @Index(name = "idx_notification_outbox_book", columnList = "book_id") })
+@Data
+@NoArgsConstructor
+public class NotificationOutbox {
+
+    /**
+     * Unique identifier, increasing in insertion order so the oldest notifications are delivered first.
+     * Drawn from a pooled sequence so that the outbox rows of a bulk import are inserted in batches.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_seq")
+    @SequenceGenerator(name = "notification_outbox_seq", sequenceName = "notification_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * ID of the reviewed book; not a foreign key, the notification outlives a deleted book.
+     */
+    private int bookId;
+
+    /**
+     * Email address of the author to notify.
+     */
+    private String authorEmail;
+
+    /**
+     * Title of the reviewed book.
+     */
+    private String bookTitle;
+
+    /**
+     * Number of new reviews the notification reports.
+     */
+    private int reviewCount;
+
+    /**
+     * Timestamp of the transaction that wrote the notification.
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Time the notification is due: the end of its digest window, then the end
+     * of the lease of the poller sending it, then the end of its backoff after a
+     * failed send.
+     */
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * Time a poller last claimed the notification, null while it waits for its digest window.
+     */
+    private LocalDateTime claimedAt;
+
+    /**
+     * Number of failed sends so far.
+     */
+    private int attempts;
+
+    public NotificationOutbox(int bookId, String authorEmail, String bookTitle, int reviewCount,
+            LocalDateTime createdAt, LocalDateTime nextAttemptAt) {
+        this.bookId = bookId;
+        this.authorEmail = authorEmail;
+        this.bookTitle = bookTitle;
+        this.reviewCount = reviewCount;
+        this.createdAt = createdAt;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+}
@@ -6,8 +6,12 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -17,19 +21,29 @@ import lombok.NoArgsConstructor;
 
 /**
  * Entity representing a Review for a Book.
+ * Reviews of a book are indexed newest first, so one page of them is read with a single index range scan.
+ * A reviewer reviews a book at most once.
  */
 @Entity
+@Table(indexes = @Index(name = "idx_review_book_time", columnList = "book_id, timestamp DESC, review_id"),
+       uniqueConstraints = @UniqueConstraint(name = "uk_review_book_reviewer", columnNames = { "book_id", "reviewer_id" }))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Review {
 
+    // Sequence review IDs are drawn from, and number of IDs drawn per round trip
+    public static final String ID_SEQUENCE = "review_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     /**
      * Unique identifier for the review.
-     * Auto-generated by the database.
+     * Drawn from a pooled sequence (emulated by a table where the database has no
+     * sequences), 50 IDs per round trip, so that review inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Integer reviewId;
 
     /**
@@ -0,0 +1,15 @@
+package com.bookstore.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by BookService after a book is deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class BookDeletedEvent {
+
+    // ID of the deleted book
+    private final int bookId;
+}
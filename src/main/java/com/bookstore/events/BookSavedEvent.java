@@ -0,0 +1,25 @@
+package com.bookstore.events;
+
+import java.time.LocalDateTime;
+
+import com.bookstore.payload.response.BookSummaryResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by BookService after a book is saved.
+ */
+@Getter
+@AllArgsConstructor
+public class BookSavedEvent {
+
+    // Saved book with its current rating aggregates
+    private final BookSummaryResponse book;
+
+    // Content of the saved book, fed to the content search index
+    private final String content;
+
+    // Time the content was stored, recorded by the content search index
+    private final LocalDateTime contentStoredAt;
+}
@@ -0,0 +1,27 @@
+package com.bookstore.events;
+
+import java.time.LocalDateTime;
+
+import com.bookstore.payload.response.BookSummaryResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by ReviewService after reviews of a book are saved, once per book
+ * and transaction, so a bulk import does not wake every listener per review.
+ * Listeners should use @TransactionalEventListener so they only see committed reviews.
+ */
+@Getter
+@AllArgsConstructor
+public class ReviewSavedEvent {
+
+    // Reviewed book with its rating aggregates after these reviews
+    private final BookSummaryResponse book;
+
+    // Number of reviews of the book saved in the transaction
+    private final int reviewCount;
+
+    // Timestamp of the reviews
+    private final LocalDateTime timestamp;
+}
@@ -0,0 +1,16 @@
+package com.bookstore.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by UserDetailsServiceImpl after a user is saved or deleted.
+ * Code changing the roles of a user must publish it too, cached principals carry the roles.
+ */
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+
+    // Username of the changed user
+    private final String username;
+}
@@ -7,6 +7,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -15,6 +16,11 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import com.bookstore.exceptions.BookNotFoundException;
+import com.bookstore.exceptions.DuplicateReviewException;
+import com.bookstore.exceptions.InvalidInputException;
+import com.bookstore.exceptions.ReviewQueueFullException;
+
 /**
  * Global exception handler for REST controllers.
  * Handles various exceptions and returns consistent error responses.
@@ -51,6 +57,57 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(getErrorsMap(errors), HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Handles invalid request parameters detected by the service layer.
+     *
+     * @param ex the InvalidInputException
+     * @return ResponseEntity with error message and BAD_REQUEST status
+     */
+    @ExceptionHandler(InvalidInputException.class)
+    public ResponseEntity<Map<String, List<String>>> handleInvalidInputException(InvalidInputException ex) {
+        List<String> errors = Collections.singletonList(ex.getMessage());
+        return new ResponseEntity<>(getErrorsMap(errors), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles requests for books that do not exist.
+     *
+     * @param ex the BookNotFoundException
+     * @return ResponseEntity with error message and NOT_FOUND status
+     */
+    @ExceptionHandler(BookNotFoundException.class)
+    public ResponseEntity<Map<String, List<String>>> handleBookNotFoundException(BookNotFoundException ex) {
+        List<String> errors = Collections.singletonList(ex.getMessage());
+        return new ResponseEntity<>(getErrorsMap(errors), HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handles repeated reviews of a book by the same reviewer.
+     *
+     * @param ex the DuplicateReviewException
+     * @return ResponseEntity with error message and CONFLICT status
+     */
+    @ExceptionHandler(DuplicateReviewException.class)
+    public ResponseEntity<Map<String, List<String>>> handleDuplicateReviewException(DuplicateReviewException ex) {
+        List<String> errors = Collections.singletonList(ex.getMessage());
+        return new ResponseEntity<>(getErrorsMap(errors), HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles reviews refused because the write-behind queue is full or shutting down.
+     * Clients are asked to retry after a second.
+     *
+     * @param ex the ReviewQueueFullException
+     * @return ResponseEntity with error message and SERVICE_UNAVAILABLE status
+     */
+    @ExceptionHandler(ReviewQueueFullException.class)
+    public ResponseEntity<Map<String, List<String>>> handleReviewQueueFullException(ReviewQueueFullException ex) {
+        List<String> errors = Collections.singletonList(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(getErrorsMap(errors));
+    }
+
     /**
      * Handles general exceptions not explicitly caught by other handlers.
      *
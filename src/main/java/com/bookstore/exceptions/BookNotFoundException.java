@@ -0,0 +1,10 @@
+package com.bookstore.exceptions;
+
+/**
+ * Custom exception to indicate that a requested book does not exist.
+ */
+public class BookNotFoundException extends RuntimeException {
+    public BookNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.bookstore.exceptions;
+
+/**
+ * Exception thrown when a reviewer has already reviewed the book.
+ */
+public class DuplicateReviewException extends RuntimeException {
+    public DuplicateReviewException(String message) {
+        super(message);
+    }
+}
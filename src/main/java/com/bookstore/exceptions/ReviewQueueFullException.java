@@ -0,0 +1,10 @@
+package com.bookstore.exceptions;
+
+/**
+ * Custom exception to indicate that the write-behind review queue cannot accept more reviews.
+ */
+public class ReviewQueueFullException extends RuntimeException {
+    public ReviewQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,22 @@
+package com.bookstore.helpers;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores book content in the compressed {@link ContentCodec} format.
+ * Rows written as plain text before compression are still read.
+ */
+@Converter
+public class CompressedContentConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String content) {
+        return content == null ? null : ContentCodec.encode(content);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] stored) {
+        return stored == null ? null : ContentCodec.decode(stored);
+    }
+}
@@ -0,0 +1,173 @@
+package com.bookstore.helpers;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Storage format of book content.
+ *
+ * Content is stored as UTF-8, split into fixed-size blocks that are deflated
+ * independently, so any byte range can be served by inflating only the
+ * blocks it covers. Layout (big-endian):
+ *
+ * <pre>
+ * magic (4: 0xFF 'B' 'K' 'Z') | codec (1) | length (4) | block size (4) | block count (4)
+ * | compressed length of each block (4 each) | blocks
+ * </pre>
+ *
+ * Content that does not shrink is stored with the {@link #STORED} codec,
+ * where the raw bytes follow the length. Values without the magic are rows
+ * written before compression existed and are read as plain UTF-8; 0xFF never
+ * occurs in UTF-8, so the two cannot be confused.
+ */
+public final class ContentCodec {
+
+    public static final byte[] MAGIC = { (byte) 0xFF, 'B', 'K', 'Z' };
+
+    // Raw UTF-8 bytes after the length
+    public static final byte STORED = 0;
+
+    // Independently deflated blocks
+    public static final byte DEFLATE_BLOCKS = 1;
+
+    // Uncompressed bytes per block, the unit of work of a ranged read
+    public static final int BLOCK_SIZE = 64 * 1024;
+
+    // magic, codec, length
+    public static final int STORED_HEADER_BYTES = 4 + 1 + 4;
+
+    // magic, codec, length, block size, block count
+    public static final int BLOCKS_HEADER_BYTES = 4 + 1 + 4 + 4 + 4;
+
+    private ContentCodec() {
+    }
+
+    /**
+     * Encodes content for storage.
+     *
+     * @param content text to store
+     * @return encoded bytes, compressed when that saves space
+     */
+    public static byte[] encode(String content) {
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        int blockCount = (raw.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        ByteArrayOutputStream blocks = new ByteArrayOutputStream(raw.length / 3 + 64);
+        int[] blockLengths = new int[blockCount];
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        byte[] buffer = new byte[BLOCK_SIZE + 64];
+        try {
+            for (int block = 0; block < blockCount; block++) {
+                int from = block * BLOCK_SIZE;
+                deflater.reset();
+                deflater.setInput(raw, from, Math.min(BLOCK_SIZE, raw.length - from));
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int written = deflater.deflate(buffer);
+                    blocks.write(buffer, 0, written);
+                    blockLengths[block] += written;
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+
+        int compressedSize = BLOCKS_HEADER_BYTES + 4 * blockCount + blocks.size();
+        if (compressedSize >= STORED_HEADER_BYTES + raw.length) {
+            return ByteBuffer.allocate(STORED_HEADER_BYTES + raw.length)
+                .put(MAGIC).put(STORED).putInt(raw.length).put(raw)
+                .array();
+        }
+
+        ByteBuffer encoded = ByteBuffer.allocate(compressedSize)
+            .put(MAGIC).put(DEFLATE_BLOCKS).putInt(raw.length).putInt(BLOCK_SIZE).putInt(blockCount);
+        for (int length : blockLengths) {
+            encoded.putInt(length);
+        }
+        return encoded.put(blocks.toByteArray()).array();
+    }
+
+    /**
+     * Decodes stored content, including rows written before compression.
+     *
+     * @param stored bytes read from the database
+     * @return the text
+     */
+    public static String decode(byte[] stored) {
+        if (!hasHeader(stored)) {
+            return new String(stored, StandardCharsets.UTF_8);
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(stored, MAGIC.length, stored.length - MAGIC.length);
+        byte codec = in.get();
+        int length = in.getInt();
+        if (codec == STORED) {
+            return new String(stored, STORED_HEADER_BYTES, length, StandardCharsets.UTF_8);
+        }
+        if (codec != DEFLATE_BLOCKS) {
+            throw new IllegalStateException("Unknown content codec " + codec);
+        }
+
+        int blockSize = in.getInt();
+        int blockCount = in.getInt();
+        int offset = BLOCKS_HEADER_BYTES + 4 * blockCount;
+        byte[] raw = new byte[length];
+        for (int block = 0; block < blockCount; block++) {
+            int compressedLength = in.getInt();
+            int from = block * blockSize;
+            inflate(stored, offset, compressedLength, raw, from, Math.min(blockSize, length - from));
+            offset += compressedLength;
+        }
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param stored bytes read from the database, or a prefix of them
+     * @return true if the bytes start with the format header
+     */
+    public static boolean hasHeader(byte[] stored) {
+        if (stored.length < STORED_HEADER_BYTES) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (stored[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Inflates one block into the target array.
+     *
+     * @param source       bytes holding the compressed block
+     * @param sourceOffset start of the block in source
+     * @param sourceLength compressed length of the block
+     * @param target       array receiving the uncompressed bytes
+     * @param targetOffset position of the block in target
+     * @param targetLength uncompressed length of the block
+     */
+    public static void inflate(byte[] source, int sourceOffset, int sourceLength,
+                               byte[] target, int targetOffset, int targetLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(source, sourceOffset, sourceLength);
+            int done = 0;
+            while (done < targetLength) {
+                int read = inflater.inflate(target, targetOffset + done, targetLength - done);
+                if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IllegalStateException("Truncated content block");
+                }
+                done += read;
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted content block", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.bookstore.metrics;
+
+import java.util.Map;
+
+/**
+ * A component publishing counters and gauges, collected by MetricsController.
+ */
+public interface MetricsSource {
+
+    /**
+     * @return name the metrics are grouped under, e.g. "search.cache"
+     */
+    String getMetricsName();
+
+    /**
+     * @return current value of every metric of the component, by metric name
+     */
+    Map<String, Number> getMetrics();
+}
@@ -0,0 +1,17 @@
+package com.bookstore.payload.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookPageResponse {
+    // Books of the current page, ordered by book ID
+    private List<BookSummaryResponse> books;
+    
+    // Cursor to pass as "after" for the next page; null when this is the last page
+    private Integer nextCursor;
+}
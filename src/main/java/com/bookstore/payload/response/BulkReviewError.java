@@ -0,0 +1,28 @@
+package com.bookstore.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkReviewError {
+    // Position of the rejected review in the request
+    private int index;
+    
+    // Kind of rejection, so a repeated review can be told from an invalid one
+    private Type type;
+    
+    // Reason the review was rejected
+    private String message;
+    
+    public enum Type {
+        // Missing review, rating out of range or blank comment
+        INVALID,
+        // Unknown book or reviewer
+        NOT_FOUND,
+        // Reviewer already reviewed the book, before or earlier in the same request
+        DUPLICATE
+    }
+}
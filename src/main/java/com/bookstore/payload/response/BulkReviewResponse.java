@@ -0,0 +1,17 @@
+package com.bookstore.payload.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkReviewResponse {
+    // Number of reviews saved
+    private int saved;
+    
+    // Reviews that were rejected, the others are saved
+    private List<BulkReviewError> errors;
+}
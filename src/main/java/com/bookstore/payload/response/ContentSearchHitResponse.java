@@ -0,0 +1,22 @@
+package com.bookstore.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContentSearchHitResponse {
+    // Unique identifier for the book
+    private Integer bookId;
+    
+    // Title of the book
+    private String title;
+    
+    // Username of the author who published the book
+    private String authorUsername;
+    
+    // BM25 relevance of the book for the query
+    private double score;
+}
@@ -0,0 +1,31 @@
+package com.bookstore.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RatingHistogramResponse {
+    // Unique identifier for the book
+    private Integer bookId;
+    
+    // Number of reviews of the book, the sum of the counters below
+    private int reviewCount;
+    
+    // Number of 1-star reviews
+    private int oneStar;
+    
+    // Number of 2-star reviews
+    private int twoStars;
+    
+    // Number of 3-star reviews
+    private int threeStars;
+    
+    // Number of 4-star reviews
+    private int fourStars;
+    
+    // Number of 5-star reviews
+    private int fiveStars;
+}
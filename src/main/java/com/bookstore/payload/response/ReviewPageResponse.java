@@ -0,0 +1,17 @@
+package com.bookstore.payload.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReviewPageResponse {
+    // Reviews of the current page, most recent first
+    private List<ReviewResponse> reviews;
+    
+    // Opaque cursor to pass as "after" for the next page; null when this is the last page
+    private String nextCursor;
+}
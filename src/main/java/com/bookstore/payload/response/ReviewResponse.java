@@ -9,6 +9,9 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class ReviewResponse {
+    // Unique identifier of the review
+    private Integer reviewId;
+    
     // Username of the user who wrote the review
     private String reviewerUsername;
     
@@ -0,0 +1,25 @@
+package com.bookstore.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendingBookResponse {
+    // Unique identifier for the book
+    private Integer bookId;
+    
+    // Title of the book
+    private String title;
+    
+    // Username of the author who published the book
+    private String authorUsername;
+    
+    // Average rating of all reviews (0 when not reviewed)
+    private double averageRating;
+    
+    // Number of reviews of the book within the trending window
+    private int recentReviews;
+}
@@ -0,0 +1,16 @@
+package com.bookstore.repository;
+
+/**
+ * Read-only projection of a book with the email of its author, used to resolve books in bulk.
+ */
+public interface BookAuthorView {
+
+    // ID of the book
+    Integer getBookId();
+
+    // Title of the book
+    String getTitle();
+
+    // Email of the author, notified of new reviews
+    String getAuthorEmail();
+}
@@ -0,0 +1,24 @@
+package com.bookstore.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.bookstore.entity.BookContent;
+
+@Repository
+public interface BookContentRepository extends JpaRepository<BookContent, Integer> {
+
+    // Retrieve the ID, storage time and stored size of the books after the given ID, in ID order, without their content
+    @Query(value = "SELECT book_id AS bookId, stored_at AS storedAt, OCTET_LENGTH(content) AS storedBytes "
+        + "FROM book_content WHERE book_id > :after ORDER BY book_id", nativeQuery = true)
+    List<BookContentStampView> findStampsAfter(Integer after, Pageable pageable);
+
+    // Retrieve the ID and content of the given books
+    @Query("SELECT c.bookId AS bookId, c.content AS content FROM BookContent c WHERE c.bookId IN :bookIds")
+    List<BookContentView> findContentByBookIdIn(Collection<Integer> bookIds);
+}
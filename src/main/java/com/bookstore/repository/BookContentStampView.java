@@ -0,0 +1,19 @@
+package com.bookstore.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of when the content of a book was stored and how large it is,
+ * used to bring the content search index up to date without reading every content.
+ */
+public interface BookContentStampView {
+
+    // ID of the book
+    Integer getBookId();
+
+    // Time the content was stored, null for rows older than this column
+    LocalDateTime getStoredAt();
+
+    // Size of the stored, usually compressed, content in bytes
+    long getStoredBytes();
+}
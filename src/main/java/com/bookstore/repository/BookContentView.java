@@ -0,0 +1,13 @@
+package com.bookstore.repository;
+
+/**
+ * Read-only projection of a book ID and content, used to build the content search index.
+ */
+public interface BookContentView {
+
+    // ID of the book
+    Integer getBookId();
+
+    // Content of the book
+    String getContent();
+}
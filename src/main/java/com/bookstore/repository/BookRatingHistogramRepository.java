@@ -0,0 +1,42 @@
+package com.bookstore.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.bookstore.entity.BookRatingHistogram;
+import com.bookstore.payload.response.RatingHistogramResponse;
+
+@Repository
+public interface BookRatingHistogramRepository extends JpaRepository<BookRatingHistogram, Integer> {
+
+    // Retrieve the rating histogram of a book, empty if it has no row yet
+    @Query("SELECT new com.bookstore.payload.response.RatingHistogramResponse(h.bookId, "
+            + "h.oneStar + h.twoStars + h.threeStars + h.fourStars + h.fiveStars, "
+            + "h.oneStar, h.twoStars, h.threeStars, h.fourStars, h.fiveStars) "
+            + "FROM BookRatingHistogram h WHERE h.bookId = :bookId")
+    Optional<RatingHistogramResponse> findResponseById(Integer bookId);
+
+    // Add review counts to the histogram of a book in place; returns 0 when the book has no row yet
+    @Modifying
+    @Query("UPDATE BookRatingHistogram h SET h.oneStar = h.oneStar + :oneStar, h.twoStars = h.twoStars + :twoStars, "
+            + "h.threeStars = h.threeStars + :threeStars, h.fourStars = h.fourStars + :fourStars, "
+            + "h.fiveStars = h.fiveStars + :fiveStars WHERE h.bookId = :bookId")
+    int addCounts(Integer bookId, int oneStar, int twoStars, int threeStars, int fourStars, int fiveStars);
+
+    // Drop every histogram before they are rebuilt from the review table
+    @Modifying
+    @Query("DELETE FROM BookRatingHistogram h")
+    int deleteAllHistograms();
+
+    // Rebuild the histogram of every reviewed book from its reviews
+    @Modifying
+    @Query(value = "INSERT INTO book_rating_histogram (book_id, one_star, two_stars, three_stars, four_stars, five_stars) "
+            + "SELECT book_id, SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END) FROM review GROUP BY book_id", nativeQuery = true)
+    int insertHistogramsFromReviews();
+}
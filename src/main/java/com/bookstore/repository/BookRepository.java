@@ -1,24 +1,107 @@
 package com.bookstore.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.bookstore.entity.Book;
 import com.bookstore.entity.UserEntity;
+import com.bookstore.payload.response.BookSummaryResponse;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Integer> {
 
-    // Search books by title keyword (case-insensitive)
-    List<Book> findByTitleContainingIgnoreCase(String keyword);
-    
+    // Search book summaries by title keyword (case-insensitive)
+    @Query("SELECT new com.bookstore.payload.response.BookSummaryResponse("
+            + "b.bookId, b.title, a.username, b.averageRating, b.reviewCount) "
+            + "FROM Book b JOIN b.author a WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%')) ORDER BY b.bookId")
+    List<BookSummaryResponse> findSummariesByTitleContaining(String keyword, Pageable pageable);
+
+    // Stream the ID and title of every book (caller must hold a transaction)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT b.bookId AS bookId, b.title AS title FROM Book b")
+    Stream<BookTitleView> streamAllTitles();
+
     // Check if a book with the same title and author exists
     boolean existsByTitleAndAuthor(String title, UserEntity author);
-    
-    // Retrieve books ordered by average rating (highest first)
-    @Query("SELECT b FROM Book b LEFT JOIN b.reviews r GROUP BY b ORDER BY COALESCE(AVG(r.rating), 0) DESC")
-    List<Book> findTopBooksByAverageRating(int limit);
+
+    // Retrieve one page of book summaries ordered by average rating (highest first), served by idx_book_rating
+    @Query("SELECT new com.bookstore.payload.response.BookSummaryResponse("
+            + "b.bookId, b.title, a.username, b.averageRating, b.reviewCount) "
+            + "FROM Book b JOIN b.author a ORDER BY b.averageRating DESC, b.reviewCount DESC, b.bookId")
+    List<BookSummaryResponse> findTopBookSummaries(Pageable pageable);
+
+    // Retrieve the summary of a single book, including its current rating aggregates
+    @Query("SELECT new com.bookstore.payload.response.BookSummaryResponse("
+            + "b.bookId, b.title, a.username, b.averageRating, b.reviewCount) "
+            + "FROM Book b JOIN b.author a WHERE b.bookId = :bookId")
+    Optional<BookSummaryResponse> findSummaryById(Integer bookId);
+
+    // Retrieve the summaries of the given books, in no particular order
+    @Query("SELECT new com.bookstore.payload.response.BookSummaryResponse("
+            + "b.bookId, b.title, a.username, b.averageRating, b.reviewCount) "
+            + "FROM Book b JOIN b.author a WHERE b.bookId IN :bookIds")
+    List<BookSummaryResponse> findSummariesByIdIn(Collection<Integer> bookIds);
+
+    // Retrieve the summary of every book, ordered by book ID
+    @Query("SELECT new com.bookstore.payload.response.BookSummaryResponse("
+            + "b.bookId, b.title, a.username, b.averageRating, b.reviewCount) "
+            + "FROM Book b JOIN b.author a ORDER BY b.bookId")
+    List<BookSummaryResponse> findAllSummaries();
+
+    // Keyset page of book summaries whose id is strictly greater than the given cursor (no count query)
+    @Query("SELECT new com.bookstore.payload.response.BookSummaryResponse("
+            + "b.bookId, b.title, a.username, b.averageRating, b.reviewCount) "
+            + "FROM Book b JOIN b.author a WHERE b.bookId > :after ORDER BY b.bookId")
+    Slice<BookSummaryResponse> findSummariesAfter(Integer after, Pageable pageable);
+
+    // Stream the summary of every book (caller must hold a transaction)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.bookstore.payload.response.BookSummaryResponse("
+            + "b.bookId, b.title, a.username, b.averageRating, b.reviewCount) "
+            + "FROM Book b JOIN b.author a")
+    Stream<BookSummaryResponse> streamAllSummaries();
+
+    // Fold one new rating into the stored aggregates of a book and bump its review revision.
+    // The average is assigned first so it reads the old count on every database.
+    @Modifying
+    @Query("UPDATE Book b SET b.averageRating = (b.averageRating * b.reviewCount + :rating) / (b.reviewCount + 1), "
+            + "b.reviewCount = b.reviewCount + 1, b.revision = b.revision + 1, b.lastModified = :modifiedAt "
+            + "WHERE b.bookId = :bookId")
+    int addRating(Integer bookId, int rating, LocalDateTime modifiedAt);
+
+    // Fold a batch of new ratings of one book into its stored aggregates and bump its review revision once
+    @Modifying
+    @Query("UPDATE Book b SET b.averageRating = (b.averageRating * b.reviewCount + :ratingSum) / (b.reviewCount + :count), "
+            + "b.reviewCount = b.reviewCount + :count, b.revision = b.revision + 1, b.lastModified = :modifiedAt "
+            + "WHERE b.bookId = :bookId")
+    int addRatings(Integer bookId, int count, long ratingSum, LocalDateTime modifiedAt);
+
+    // Retrieve the title and author email of the given books, in no particular order
+    @Query("SELECT b.bookId AS bookId, b.title AS title, a.email AS authorEmail "
+            + "FROM Book b JOIN b.author a WHERE b.bookId IN :bookIds")
+    List<BookAuthorView> findAuthorsByIdIn(Collection<Integer> bookIds);
+
+    // Retrieve the review revision of a book without loading the book or its reviews
+    @Query("SELECT b.revision AS revision, b.lastModified AS lastModified FROM Book b WHERE b.bookId = :bookId")
+    Optional<BookRevisionView> findRevisionById(Integer bookId);
+
+    // Recompute the rating aggregates of every book from its reviews
+    @Modifying
+    @Query("UPDATE Book b SET b.reviewCount = (SELECT COUNT(r) FROM Review r WHERE r.book = b), "
+            + "b.averageRating = COALESCE((SELECT AVG(r.rating) FROM Review r WHERE r.book = b), 0)")
+    int recomputeRatingAggregates();
 }
@@ -0,0 +1,15 @@
+package com.bookstore.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of the review revision of a book, used for conditional requests.
+ */
+public interface BookRevisionView {
+
+    // Incremented whenever a review of the book is saved
+    long getRevision();
+
+    // Time of the last saved review, null until the first one
+    LocalDateTime getLastModified();
+}
@@ -0,0 +1,13 @@
+package com.bookstore.repository;
+
+/**
+ * Read-only projection of a book ID and title, used to build in-memory title indexes.
+ */
+public interface BookTitleView {
+
+    // ID of the book
+    Integer getBookId();
+
+    // Title of the book
+    String getTitle();
+}
@@ -0,0 +1,10 @@
+package com.bookstore.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.bookstore.entity.DeadLetterNotification;
+
+@Repository
+public interface DeadLetterNotificationRepository extends JpaRepository<DeadLetterNotification, Long> {
+}
@@ -0,0 +1,50 @@
+package com.bookstore.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.bookstore.entity.NotificationOutbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Lock the notifications due first, skipping the rows another node has locked
+    // (a lock timeout of -2 is Hibernate's SKIP LOCKED; databases without it wait instead)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT n FROM NotificationOutbox n WHERE n.nextAttemptAt <= :now ORDER BY n.nextAttemptAt, n.id")
+    List<NotificationOutbox> claimDue(LocalDateTime now, Pageable pageable);
+
+    // Lock the notifications of the given books still waiting for their digest window, skipping locked rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT n FROM NotificationOutbox n WHERE n.bookId IN :bookIds AND n.claimedAt IS NULL AND n.nextAttemptAt > :now")
+    List<NotificationOutbox> claimWaiting(Collection<Integer> bookIds, LocalDateTime now);
+
+    // Record a failed send and when to send again
+    @Modifying
+    @Query("UPDATE NotificationOutbox n SET n.attempts = :attempts, n.nextAttemptAt = :nextAttemptAt WHERE n.id IN :ids")
+    int reschedule(Collection<Long> ids, int attempts, LocalDateTime nextAttemptAt);
+
+    // Delete sent notifications
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox n WHERE n.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
+
+    // Delete the pending notifications of a deleted book; a digest being sent is only recorded on rows still present
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox n WHERE n.bookId = :bookId")
+    int deleteByBookId(Integer bookId);
+}
@@ -0,0 +1,13 @@
+package com.bookstore.repository;
+
+/**
+ * Read-only projection of the book and reviewer of a review, the key of the duplicate review filter.
+ */
+public interface ReviewKeyView {
+
+    // ID of the reviewed book
+    Integer getBookId();
+
+    // Username of the reviewer
+    String getReviewerUsername();
+}
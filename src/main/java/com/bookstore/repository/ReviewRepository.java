@@ -1,11 +1,23 @@
 package com.bookstore.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.bookstore.entity.Review;
+import com.bookstore.payload.response.ReviewResponse;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Integer> {
@@ -15,4 +27,37 @@ public interface ReviewRepository extends JpaRepository<Review, Integer> {
     
     // Find all reviews for a given book ordered by timestamp descending (most recent first)
     List<Review> findByBook_BookIdOrderByTimestampDesc(Integer bookId);
+
+    // First keyset page of the reviews of a book, most recent first, served by idx_review_book_time
+    @Query("SELECT new com.bookstore.payload.response.ReviewResponse("
+            + "r.reviewId, u.username, r.rating, r.comment, r.timestamp) "
+            + "FROM Review r JOIN r.reviewer u WHERE r.book.bookId = :bookId "
+            + "ORDER BY r.timestamp DESC, r.reviewId")
+    Slice<ReviewResponse> findFirstPage(Integer bookId, Pageable pageable);
+
+    // Keyset page of the reviews of a book that follow the given (timestamp, reviewId) position (no count query)
+    @Query("SELECT new com.bookstore.payload.response.ReviewResponse("
+            + "r.reviewId, u.username, r.rating, r.comment, r.timestamp) "
+            + "FROM Review r JOIN r.reviewer u WHERE r.book.bookId = :bookId "
+            + "AND (r.timestamp < :timestamp OR (r.timestamp = :timestamp AND r.reviewId > :reviewId)) "
+            + "ORDER BY r.timestamp DESC, r.reviewId")
+    Slice<ReviewResponse> findPageAfter(Integer bookId, LocalDateTime timestamp, Integer reviewId, Pageable pageable);
+
+    // Stream the book and time of every review since the given time (caller must hold a transaction)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.book.bookId AS bookId, r.timestamp AS timestamp FROM Review r WHERE r.timestamp >= :since")
+    Stream<ReviewTimeView> streamReviewTimesSince(LocalDateTime since);
+
+    // Check whether a reviewer already reviewed a book, served by uk_review_book_reviewer
+    boolean existsByBook_BookIdAndReviewer_Username(Integer bookId, String reviewerUsername);
+
+    // Retrieve the existing reviews among the given books and reviewers, as (book, reviewer) keys
+    @Query("SELECT r.book.bookId AS bookId, u.username AS reviewerUsername FROM Review r JOIN r.reviewer u "
+            + "WHERE r.book.bookId IN :bookIds AND u.username IN :usernames")
+    List<ReviewKeyView> findKeysByBookIdInAndUsernameIn(Collection<Integer> bookIds, Collection<String> usernames);
+
+    // Stream the (book, reviewer) key of every review (caller must hold a transaction)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.book.bookId AS bookId, u.username AS reviewerUsername FROM Review r JOIN r.reviewer u")
+    Stream<ReviewKeyView> streamAllKeys();
 }
@@ -0,0 +1,15 @@
+package com.bookstore.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of the book and time of a review, used to seed the trending windows.
+ */
+public interface ReviewTimeView {
+
+    // ID of the reviewed book
+    Integer getBookId();
+
+    // Timestamp of the review
+    LocalDateTime getTimestamp();
+}
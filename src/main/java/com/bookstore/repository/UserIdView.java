@@ -0,0 +1,13 @@
+package com.bookstore.repository;
+
+/**
+ * Read-only projection of a user ID and username, used to resolve users in bulk.
+ */
+public interface UserIdView {
+
+    // ID of the user
+    Long getUserId();
+
+    // Username of the user
+    String getUsername();
+}
@@ -1,5 +1,7 @@
 package com.bookstore.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.Modifying;
@@ -15,6 +17,10 @@ public interface UserRepository extends CrudRepository<UserEntity, Integer> {
     // Retrieve a user by their unique username
     Optional<UserEntity> findByUsername(String username);
     
+    // Retrieve the IDs of the users with the given usernames, without loading them
+    @Query("SELECT u.userId AS userId, u.username AS username FROM UserEntity u WHERE u.username IN :usernames")
+    List<UserIdView> findIdsByUsernameIn(Collection<String> usernames);
+    
     // Check if a user exists by their username
     Boolean existsByUsername(String username);
 
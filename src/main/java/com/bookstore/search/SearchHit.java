@@ -0,0 +1,23 @@
+package com.bookstore.search;
+
+/**
+ * A document matched by a search with its relevance score.
+ */
+public final class SearchHit {
+
+    private final int bookId;
+    private final double score;
+
+    public SearchHit(int bookId, double score) {
+        this.bookId = bookId;
+        this.score = score;
+    }
+
+    public int getBookId() {
+        return bookId;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,150 @@
+package com.bookstore.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read-only view of a segment file written by {@link SegmentWriter}.
+ *
+ * The file is memory-mapped, so postings and the document table are paged in
+ * by the operating system on demand and never copied to the heap. Only the
+ * term dictionary is decoded into sorted arrays for binary search.
+ */
+public final class Segment {
+
+    private final long generation;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int docsOffset;
+    private final int docCount;
+
+    private final String[] terms;
+    private final int[] docFreqs;
+    private final int[] offsets;
+
+    private Segment(long generation, Path path, MappedByteBuffer buffer, int docsOffset, int docCount,
+                    String[] terms, int[] docFreqs, int[] offsets) {
+        this.generation = generation;
+        this.path = path;
+        this.buffer = buffer;
+        this.docsOffset = docsOffset;
+        this.docCount = docCount;
+        this.terms = terms;
+        this.docFreqs = docFreqs;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Maps a finished segment file.
+     *
+     * @param path       segment file
+     * @param generation generation the segment was written with
+     * @return the opened segment
+     * @throws IOException if the file cannot be mapped or is not a segment
+     */
+    public static Segment open(Path path, long generation) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < SegmentWriter.FOOTER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid segment size " + size + ": " + path);
+            }
+            // The mapping stays valid once the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        int footer = buffer.capacity() - SegmentWriter.FOOTER_BYTES;
+        long docsOffset = buffer.getLong(footer);
+        long dictOffset = buffer.getLong(footer + 8);
+        int docCount = buffer.getInt(footer + 16);
+        int termCount = buffer.getInt(footer + 20);
+        if (buffer.getInt(footer + 24) != SegmentWriter.MAGIC) {
+            throw new IOException("Not a segment file: " + path);
+        }
+
+        String[] terms = new String[termCount];
+        int[] docFreqs = new int[termCount];
+        int[] offsets = new int[termCount];
+        ByteBuffer dict = buffer.duplicate().position((int) dictOffset);
+        for (int i = 0; i < termCount; i++) {
+            byte[] term = new byte[dict.getShort() & 0xFFFF];
+            dict.get(term);
+            terms[i] = new String(term, StandardCharsets.UTF_8);
+            docFreqs[i] = dict.getInt();
+            offsets[i] = (int) dict.getLong();
+        }
+
+        return new Segment(generation, path, buffer, (int) docsOffset, docCount, terms, docFreqs, offsets);
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return number of documents stored, including ones deleted since
+     */
+    public int getDocCount() {
+        return docCount;
+    }
+
+    public int getTermCount() {
+        return terms.length;
+    }
+
+    /**
+     * @param term a term
+     * @return position of the term in the dictionary, negative if absent
+     */
+    public int findTerm(String term) {
+        return Arrays.binarySearch(terms, term);
+    }
+
+    public String term(int termIndex) {
+        return terms[termIndex];
+    }
+
+    public int docFreq(int termIndex) {
+        return docFreqs[termIndex];
+    }
+
+    /**
+     * @param termIndex position of the term in the dictionary
+     * @param i         index of the posting, below {@link #docFreq(int)}
+     * @return ordinal of the document of the posting
+     */
+    public int postingOrdinal(int termIndex, int i) {
+        return buffer.getInt(offsets[termIndex] + 8 * i);
+    }
+
+    /**
+     * @param termIndex position of the term in the dictionary
+     * @param i         index of the posting, below {@link #docFreq(int)}
+     * @return term frequency of the posting
+     */
+    public int postingFrequency(int termIndex, int i) {
+        return buffer.getInt(offsets[termIndex] + 8 * i + 4);
+    }
+
+    public int bookId(int ordinal) {
+        return buffer.getInt(docsOffset + SegmentWriter.DOC_BYTES * ordinal);
+    }
+
+    public int length(int ordinal) {
+        return buffer.getInt(docsOffset + SegmentWriter.DOC_BYTES * ordinal + 4);
+    }
+
+    public long storedAt(int ordinal) {
+        return buffer.getLong(docsOffset + SegmentWriter.DOC_BYTES * ordinal + 8);
+    }
+}
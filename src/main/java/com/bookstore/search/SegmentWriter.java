@@ -0,0 +1,162 @@
+package com.bookstore.search;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes an immutable segment file read back by {@link Segment}.
+ *
+ * Documents are registered first and receive consecutive ordinals; postings
+ * are then appended term by term in ascending term order. Postings are
+ * streamed to disk as they arrive, only the dictionary and the document
+ * table are kept in memory until {@link #finish()}.
+ *
+ * Layout: postings (int ordinal, int tf)*, documents (int bookId, int length, long storedAt)*,
+ * dictionary (short length, UTF-8 term, int docFreq, long offset)*, footer.
+ */
+public final class SegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x424B5332; // "BKS2"
+
+    // bookId, length, storedAt
+    static final int DOC_BYTES = 4 + 4 + 8;
+
+    // docsOffset, dictOffset, docCount, termCount, magic
+    static final int FOOTER_BYTES = 8 + 8 + 4 + 4 + 4;
+
+    private final Path target;
+    private final Path temp;
+    private final DataOutputStream out;
+
+    private int[] bookIds = new int[16];
+    private int[] lengths = new int[16];
+    private long[] storedAts = new long[16];
+    private int docCount;
+
+    private final List<byte[]> terms = new ArrayList<>();
+    private final List<Integer> docFreqs = new ArrayList<>();
+    private final List<Long> offsets = new ArrayList<>();
+
+    private String currentTerm;
+    private int currentDocFreq;
+    private long position;
+    private boolean finished;
+
+    /**
+     * Starts a segment; the file only appears under its final name once finished.
+     *
+     * @param target path of the segment file
+     * @throws IOException if the temporary file cannot be created
+     */
+    public SegmentWriter(Path target) throws IOException {
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16));
+    }
+
+    /**
+     * Registers a document, which must happen before any posting refers to it.
+     *
+     * @param bookId   ID of the book
+     * @param length   number of terms in the document
+     * @param storedAt time the indexed content was stored, as recorded by the caller
+     * @return ordinal of the document within this segment
+     */
+    public int addDocument(int bookId, int length, long storedAt) {
+        if (docCount == bookIds.length) {
+            bookIds = Arrays.copyOf(bookIds, docCount * 2);
+            lengths = Arrays.copyOf(lengths, docCount * 2);
+            storedAts = Arrays.copyOf(storedAts, docCount * 2);
+        }
+        bookIds[docCount] = bookId;
+        lengths[docCount] = length;
+        storedAts[docCount] = storedAt;
+        return docCount++;
+    }
+
+    /**
+     * Appends a posting; terms must arrive in ascending order.
+     *
+     * @param term    the term
+     * @param ordinal ordinal returned by {@link #addDocument(int, int, long)}
+     * @param tf      frequency of the term in the document
+     * @throws IOException if writing fails
+     */
+    public void addPosting(String term, int ordinal, int tf) throws IOException {
+        if (!term.equals(currentTerm)) {
+            if (currentTerm != null && term.compareTo(currentTerm) < 0) {
+                throw new IllegalStateException("Terms must be added in ascending order: " + term);
+            }
+            endTerm();
+            currentTerm = term;
+            terms.add(term.getBytes(StandardCharsets.UTF_8));
+            offsets.add(position);
+        }
+        out.writeInt(ordinal);
+        out.writeInt(tf);
+        position += 8;
+        currentDocFreq++;
+    }
+
+    /**
+     * Writes the document table, dictionary and footer, then publishes the file.
+     *
+     * @throws IOException if writing fails
+     */
+    public void finish() throws IOException {
+        endTerm();
+
+        long docsOffset = position;
+        for (int i = 0; i < docCount; i++) {
+            out.writeInt(bookIds[i]);
+            out.writeInt(lengths[i]);
+            out.writeLong(storedAts[i]);
+        }
+
+        long dictOffset = docsOffset + (long) DOC_BYTES * docCount;
+        for (int i = 0; i < terms.size(); i++) {
+            byte[] term = terms.get(i);
+            out.writeShort(term.length);
+            out.write(term);
+            out.writeInt(docFreqs.get(i));
+            out.writeLong(offsets.get(i));
+        }
+
+        out.writeLong(docsOffset);
+        out.writeLong(dictOffset);
+        out.writeInt(docCount);
+        out.writeInt(terms.size());
+        out.writeInt(MAGIC);
+        out.close();
+
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        finished = true;
+    }
+
+    /**
+     * Discards the temporary file when the segment was not finished.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            out.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void endTerm() {
+        if (currentTerm != null) {
+            docFreqs.add(currentDocFreq);
+            currentDocFreq = 0;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.bookstore.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits text into lower-cased terms made of letters and digits.
+ */
+public final class Tokenizer {
+
+    // Longer runs are usually noise (encoded data, URLs) and would bloat the dictionary
+    public static final int MAX_TERM_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Tokenizes text into terms, in order of appearance.
+     *
+     * @param text text to tokenize, may be null
+     * @return list of terms
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean termChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                if (i - start <= MAX_TERM_LENGTH) {
+                    terms.add(text.substring(start, i).toLowerCase());
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Counts how often each term occurs in the text.
+     *
+     * @param text text to tokenize, may be null
+     * @return map from term to term frequency
+     */
+    public static Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : tokenize(text)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+}
@@ -0,0 +1,208 @@
+package com.bookstore.security;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Makes POST requests that carry an Idempotency-Key header safe to retry.
+ *
+ * The key is scoped to the authenticated user, the method and the path. The
+ * first request of a key is executed and its response stored; a retry of
+ * the same request gets the stored response replayed without executing
+ * again, and a retry arriving while the first is still running waits for it.
+ * Reusing a key for a different body is refused with UNPROCESSABLE_ENTITY.
+ * Server errors are not stored, so a retry after one executes again.
+ *
+ * Runs after the authorization filter, so rejected requests never reach the store.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+
+    // Longest key accepted, keys are client-generated UUIDs or similar
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+
+    public IdempotencyFilter(IdempotencyStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Only POST requests to the review and book endpoints that carry the header are handled.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !"POST".equals(request.getMethod())
+            || request.getHeader(IDEMPOTENCY_KEY) == null
+            || !(path.startsWith("/authenticated/review/") || path.startsWith("/book/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            sendError(response, HttpStatus.BAD_REQUEST, IDEMPOTENCY_KEY + " must have 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        // The body is read once here, to fingerprint it, and served again to the controller
+        byte[] body = request.getInputStream().readAllBytes();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String user = authentication == null ? "" : authentication.getName();
+        String key = user + " " + request.getMethod() + " " + request.getRequestURI() + " " + idempotencyKey;
+        String fingerprint = fingerprint(body);
+
+        while (true) {
+            IdempotencyStore.Registration registration = store.begin(key, fingerprint);
+            IdempotencyStore.Entry existing = registration.entry();
+            if (registration.owner()) {
+                execute(new CachedBodyRequest(request, body), response, filterChain, key, existing);
+                return;
+            }
+            if (!existing.getFingerprint().equals(fingerprint)) {
+                sendError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    IDEMPOTENCY_KEY + " was already used for a different request");
+                return;
+            }
+
+            IdempotencyStore.StoredResponse stored;
+            try {
+                stored = existing.getResponse().get(store.getWaitTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                sendError(response, HttpStatus.CONFLICT, "A request with this " + IDEMPOTENCY_KEY + " is still in progress");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+            if (stored != null) {
+                replay(stored, response);
+                return;
+            }
+            // The first request failed without a response to replay; execute this one
+        }
+    }
+
+    // Executes the request as owner of its key and stores the response unless it is a server error
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain, String key,
+                         IdempotencyStore.Entry entry) throws ServletException, IOException {
+        ContentCachingResponseWrapper recorder = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, recorder);
+            if (recorder.getStatus() < 500) {
+                store.complete(key, entry, new IdempotencyStore.StoredResponse(
+                    recorder.getStatus(), recorder.getContentType(), recorder.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                store.abandon(key, entry);
+            }
+            recorder.copyBodyToResponse();
+        }
+    }
+
+    private static void replay(IdempotencyStore.StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setHeader(REPLAYED, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    private static void sendError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"errors\":[\"" + message + "\"]}");
+    }
+
+    private static String fingerprint(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Request whose body was already read, served again from memory
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+    }
+}
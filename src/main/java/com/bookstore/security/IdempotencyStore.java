@@ -0,0 +1,209 @@
+package com.bookstore.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bookstore.metrics.MetricsSource;
+
+/**
+ * Bounded, expiring store of the responses of requests sent with an Idempotency-Key.
+ *
+ * The first request of a key registers an in-flight entry and becomes its
+ * owner; later requests of the key find the entry and wait for its response
+ * instead of executing again. Entries expire after a TTL, and the oldest are
+ * evicted once the store holds max-entries keys. An owner that fails abandons
+ * its entry, so a retry executes again.
+ */
+@Component
+public class IdempotencyStore implements MetricsSource {
+
+    // Time a response is replayed for its key
+    @Value("${idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+
+    // Upper bound for the number of stored keys, the oldest are evicted first
+    @Value("${idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    // Responses larger than this are not stored, a retry of their key executes again
+    @Value("${idempotency.max-body-bytes:65536}")
+    private int maxBodyBytes;
+
+    // Maximum time a duplicate waits for the response of the request in flight
+    @Value("${idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    // Entries in insertion order, guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    private long executed;
+    private long replayed;
+    private long waited;
+    private long mismatched;
+    private long abandoned;
+    private long evictions;
+
+    /**
+     * Registers a request of a key unless an unexpired entry already exists.
+     *
+     * @param key         scoped idempotency key
+     * @param fingerprint digest of the request, to detect a key reused for another request
+     * @return the entry of the key, owned by the caller if new, in which case the caller must execute the request
+     */
+    public synchronized Registration begin(String key, String fingerprint) {
+        long now = System.currentTimeMillis();
+        Entry existing = entries.get(key);
+        if (existing != null && existing.expiresAt > now) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                mismatched++;
+            } else if (existing.response.isDone()) {
+                replayed++;
+            } else {
+                waited++;
+            }
+            return new Registration(existing, false);
+        }
+
+        Entry created = new Entry(fingerprint, now + ttlMs);
+        entries.remove(key);
+        entries.put(key, created);
+        executed++;
+        evict(now);
+        return new Registration(created, true);
+    }
+
+    /**
+     * Stores the response of an owned entry and releases the requests waiting for it.
+     *
+     * The entry may have expired or been evicted meanwhile, and its key
+     * registered again by another owner, whose entry is left untouched.
+     *
+     * @param key      scoped idempotency key
+     * @param entry    entry owned by the caller, as returned by {@link #begin(String, String)}
+     * @param response response to replay
+     */
+    public void complete(String key, Entry entry, StoredResponse response) {
+        if (response.getBody().length > maxBodyBytes) {
+            synchronized (this) {
+                entries.remove(key, entry);
+            }
+        }
+        entry.response.complete(response);
+    }
+
+    /**
+     * Drops an owned entry whose request failed; waiting requests execute again.
+     * Only that entry is dropped, not a newer entry of the same key.
+     *
+     * @param key   scoped idempotency key
+     * @param entry entry owned by the caller, as returned by {@link #begin(String, String)}
+     */
+    public void abandon(String key, Entry entry) {
+        synchronized (this) {
+            if (entries.remove(key, entry)) {
+                abandoned++;
+            }
+        }
+        entry.response.complete(null);
+    }
+
+    /**
+     * @return maximum time a duplicate waits for the request in flight, in milliseconds
+     */
+    public long getWaitTimeoutMs() {
+        return waitTimeoutMs;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "idempotency";
+    }
+
+    @Override
+    public synchronized Map<String, Number> getMetrics() {
+        return Map.of(
+            "executed", executed,
+            "replayed", replayed,
+            "waited", waited,
+            "mismatched", mismatched,
+            "abandoned", abandoned,
+            "evictions", evictions,
+            "size", entries.size());
+    }
+
+    // Caller holds the lock; drops expired entries from the head, then the oldest beyond the bound
+    private void evict(long now) {
+        Iterator<Entry> oldest = entries.values().iterator();
+        while (oldest.hasNext()) {
+            Entry entry = oldest.next();
+            if (entry.expiresAt > now && entries.size() <= maxEntries) {
+                break;
+            }
+            oldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Request of a key, completed with its response once executed.
+     */
+    public static final class Entry {
+        private final String fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+
+        private Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * @return future of the stored response, completed with null if the owner failed
+         */
+        public CompletableFuture<StoredResponse> getResponse() {
+            return response;
+        }
+    }
+
+    /**
+     * Entry of a key, and whether the request that registered it owns it.
+     */
+    public record Registration(Entry entry, boolean owner) {
+    }
+
+    /**
+     * Status, content type and body of an executed request.
+     */
+    public static final class StoredResponse {
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+
+        public StoredResponse(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.bookstore.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bookstore.events.UserChangedEvent;
+import com.bookstore.metrics.MetricsSource;
+
+/**
+ * Bounded LRU cache of the principals of authenticated requests, keyed by username.
+ *
+ * Loading a principal costs a query of the user and their roles, on every
+ * request carrying a token. Cached principals are reused until they expire
+ * after a TTL, which bounds how long a user deleted or changed on another
+ * instance keeps their former authorities; a change committed on this
+ * instance drops the principal at once.
+ */
+@Component
+public class PrincipalCache implements MetricsSource {
+
+    // Upper bound for the number of cached principals
+    @Value("${security.principal-cache.max-entries:10000}")
+    private int maxEntries;
+
+    // Time a principal may be served from the cache, 0 disables the cache
+    @Value("${security.principal-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    // Entries in access order, guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Bumped by every invalidation, so principals read across one are not cached
+    private long invalidationCount;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Returns the cached principal of a user, loading and caching it on a miss.
+     *
+     * @param username username of the user
+     * @param loader   loads the principal on a miss, called without holding the lock
+     * @return the principal
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        long seenInvalidations;
+        synchronized (this) {
+            Entry entry = entries.get(username);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hits++;
+                return entry.principal;
+            }
+            if (entry != null) {
+                entries.remove(username);
+            }
+            misses++;
+            seenInvalidations = invalidationCount;
+        }
+
+        UserDetails principal = loader.apply(username);
+        if (ttlMs <= 0) {
+            return principal;
+        }
+
+        synchronized (this) {
+            // A user changed while loading may be loaded as they were before
+            if (seenInvalidations == invalidationCount) {
+                entries.put(username, new Entry(principal, System.currentTimeMillis() + ttlMs));
+                Iterator<Entry> eldest = entries.values().iterator();
+                while (entries.size() > maxEntries && eldest.hasNext()) {
+                    eldest.next();
+                    eldest.remove();
+                    evictions++;
+                }
+            }
+        }
+        return principal;
+    }
+
+    /**
+     * Drops the principal of a saved, deleted or re-roled user once the change is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUserChanged(UserChangedEvent event) {
+        invalidationCount++;
+        if (entries.remove(event.getUsername()) != null) {
+            invalidations++;
+        }
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "security.principal-cache";
+    }
+
+    @Override
+    public synchronized Map<String, Number> getMetrics() {
+        long lookups = hits + misses;
+        return Map.of(
+            "hits", hits,
+            "misses", misses,
+            "hit-rate", lookups == 0 ? 0.0 : (double) hits / lookups,
+            "evictions", evictions,
+            "invalidations", invalidations,
+            "size", entries.size());
+    }
+
+    // Cached principal and its expiry time
+    private static final class Entry {
+        private final UserDetails principal;
+        private final long expiresAt;
+
+        private Entry(UserDetails principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.bookstore.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.bookstore.exceptions.BookNotFoundException;
+import com.bookstore.helpers.ContentCodec;
+
+/**
+ * Streams byte ranges of stored book content without loading it whole.
+ *
+ * The stored value is read in chunks with SUBSTRING, one short query per
+ * chunk, so no connection is held while the client consumes the response.
+ * Compressed content is served by inflating only the blocks a range covers
+ * into a single block-sized buffer; legacy plain-text rows are copied as is.
+ * Heap use per response is therefore bounded by the chunk and block sizes,
+ * whatever the size of the book.
+ */
+@Component
+public class BookContentReader {
+
+    private static final String HEADER_SQL =
+        "SELECT SUBSTRING(content, 1, ?), OCTET_LENGTH(content) FROM book_content WHERE book_id = ?";
+
+    private static final String CHUNK_SQL =
+        "SELECT SUBSTRING(content, ?, ?) FROM book_content WHERE book_id = ?";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    // Upper bound for the stored bytes fetched by one query
+    @Value("${book.content.read-chunk-bytes:262144}")
+    private int readChunkBytes;
+
+    /**
+     * Reads the layout of the stored content of a book.
+     *
+     * @param bookId Book ID.
+     * @return layout of the content, used to serve ranges of it.
+     * @throws BookNotFoundException if the book has no stored content.
+     */
+    public StoredContent open(int bookId) {
+        List<StoredContent> rows = jdbcTemplate.query(HEADER_SQL,
+            (rs, rowNum) -> parseHeader(bookId, rs.getBytes(1), rs.getLong(2)),
+            ContentCodec.BLOCKS_HEADER_BYTES, bookId);
+        if (rows.isEmpty()) {
+            throw new BookNotFoundException("Book not found with id: " + bookId);
+        }
+
+        StoredContent content = rows.get(0);
+        if (content.blockCount > 0) {
+            ByteBuffer table = ByteBuffer.wrap(readStored(bookId, ContentCodec.BLOCKS_HEADER_BYTES, 4 * content.blockCount));
+            long offset = ContentCodec.BLOCKS_HEADER_BYTES + 4L * content.blockCount;
+            for (int block = 0; block < content.blockCount; block++) {
+                content.blockOffsets[block] = offset;
+                content.blockLengths[block] = table.getInt();
+                offset += content.blockLengths[block];
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Writes a range of the UTF-8 content of a book.
+     *
+     * @param content layout returned by {@link #open(int)}
+     * @param start   first byte to write
+     * @param end     last byte to write, inclusive
+     * @param out     stream receiving the bytes
+     * @throws IOException if the client stream fails
+     */
+    public void copy(StoredContent content, long start, long end, OutputStream out) throws IOException {
+        if (content.blockCount == 0) {
+            for (long position = start; position <= end; ) {
+                int length = (int) Math.min(readChunkBytes, end - position + 1);
+                out.write(readStored(content.bookId, content.dataOffset + position, length));
+                position += length;
+            }
+            return;
+        }
+
+        byte[] block = new byte[content.blockSize];
+        int first = (int) (start / content.blockSize);
+        int last = (int) (end / content.blockSize);
+        int next = first;
+        while (next <= last) {
+            // Fetch consecutive compressed blocks together, up to the chunk size
+            int from = next;
+            long runLength = content.blockLengths[next++];
+            while (next <= last && runLength + content.blockLengths[next] <= readChunkBytes) {
+                runLength += content.blockLengths[next++];
+            }
+            byte[] run = readStored(content.bookId, content.blockOffsets[from], (int) runLength);
+
+            int runOffset = 0;
+            for (int b = from; b < next; b++) {
+                long blockStart = (long) b * content.blockSize;
+                int blockLength = (int) Math.min(content.blockSize, content.length - blockStart);
+                ContentCodec.inflate(run, runOffset, content.blockLengths[b], block, 0, blockLength);
+                runOffset += content.blockLengths[b];
+
+                int skip = (int) Math.max(0, start - blockStart);
+                int stop = (int) Math.min(blockLength, end - blockStart + 1);
+                out.write(block, skip, stop - skip);
+            }
+        }
+    }
+
+    private StoredContent parseHeader(int bookId, byte[] prefix, long storedLength) {
+        if (!ContentCodec.hasHeader(prefix)) {
+            return new StoredContent(bookId, storedLength, 0, 0, 0);
+        }
+        ByteBuffer header = ByteBuffer.wrap(prefix, ContentCodec.MAGIC.length, prefix.length - ContentCodec.MAGIC.length);
+        byte codec = header.get();
+        int length = header.getInt();
+        if (codec == ContentCodec.STORED) {
+            return new StoredContent(bookId, length, ContentCodec.STORED_HEADER_BYTES, 0, 0);
+        }
+        if (codec != ContentCodec.DEFLATE_BLOCKS) {
+            throw new IllegalStateException("Unknown content codec " + codec);
+        }
+        return new StoredContent(bookId, length, 0, header.getInt(), header.getInt());
+    }
+
+    // Reads stored bytes starting at a 0-based offset; fails if the content was replaced or deleted meanwhile
+    private byte[] readStored(int bookId, long offset, int length) {
+        List<byte[]> rows = jdbcTemplate.query(CHUNK_SQL, (rs, rowNum) -> rs.getBytes(1), offset + 1, length, bookId);
+        if (rows.isEmpty() || rows.get(0) == null || rows.get(0).length != length) {
+            throw new IllegalStateException("Content of book " + bookId + " changed while it was read");
+        }
+        return rows.get(0);
+    }
+
+    /**
+     * Layout of the stored content of one book.
+     */
+    public static final class StoredContent {
+        private final int bookId;
+
+        // Length of the UTF-8 content in bytes
+        private final long length;
+
+        // Position of the raw bytes in the stored value, for uncompressed content
+        private final long dataOffset;
+
+        private final int blockSize;
+
+        // Zero for uncompressed content
+        private final int blockCount;
+
+        // Position and compressed length of each block in the stored value
+        private final long[] blockOffsets;
+        private final int[] blockLengths;
+
+        private StoredContent(int bookId, long length, long dataOffset, int blockSize, int blockCount) {
+            this.bookId = bookId;
+            this.length = length;
+            this.dataOffset = dataOffset;
+            this.blockSize = blockSize;
+            this.blockCount = blockCount;
+            this.blockOffsets = new long[blockCount];
+            this.blockLengths = new int[blockCount];
+        }
+
+        public int getBookId() {
+            return bookId;
+        }
+
+        public long getLength() {
+            return length;
+        }
+    }
+}
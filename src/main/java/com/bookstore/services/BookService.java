@@ -1,17 +1,43 @@
 package com.bookstore.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import com.bookstore.entity.Book;
+import com.bookstore.entity.BookContent;
 import com.bookstore.entity.UserEntity;
+import com.bookstore.events.BookDeletedEvent;
+import com.bookstore.events.BookSavedEvent;
+import com.bookstore.exceptions.BookNotFoundException;
 import com.bookstore.exceptions.DuplicateBookException;
+import com.bookstore.exceptions.InvalidInputException;
 import com.bookstore.payload.request.BookRequest;
+import com.bookstore.payload.response.BookSummaryResponse;
+import com.bookstore.payload.response.ContentSearchHitResponse;
+import com.bookstore.payload.response.RatingHistogramResponse;
+import com.bookstore.payload.response.TrendingBookResponse;
 import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookContentRepository;
+import com.bookstore.repository.BookRatingHistogramRepository;
+import com.bookstore.repository.NotificationOutboxRepository;
 import com.bookstore.repository.UserRepository;
+import com.bookstore.search.SearchHit;
+
+import jakarta.transaction.Transactional;
 
 @Service
 public class BookService {
@@ -22,6 +48,61 @@ public class BookService {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    BookContentRepository bookContentRepository;
+
+    @Autowired
+    BookRatingHistogramRepository ratingHistogramRepository;
+
+    @Autowired
+    NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    BookContentReader bookContentReader;
+
+    @Autowired
+    TopBooksLeaderboard leaderboard;
+
+    @Autowired
+    TitleSearchIndex titleSearchIndex;
+
+    @Autowired
+    ContentSearchIndex contentSearchIndex;
+
+    @Autowired
+    TitleSuggester titleSuggester;
+
+    @Autowired
+    SearchResultCache searchResultCache;
+
+    @Autowired
+    RatingHistogramCache ratingHistogramCache;
+
+    @Autowired
+    TrendingBooks trendingBooks;
+
+    @Autowired
+    CatalogVersion catalogVersion;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    // Upper bound for a single page of books, protects the heap from oversized requests
+    @Value("${book.page.max-size:100}")
+    private int maxPageSize;
+
+    // Maximum number of books returned by a title search
+    @Value("${book.search.max-results:50}")
+    private int maxSearchResults;
+
+    // Maximum number of suggestions per prefix, the number of books ranked at every trie node
+    @Value("${book.suggest.top-n:10}")
+    private int maxSuggestions;
+
+    // Rebuild rating aggregates from the review table at startup (needed once after upgrading)
+    @Value("${book.rating.recompute-on-startup:false}")
+    private boolean recomputeRatingsOnStartup;
+
     /**
      * Save a new book to the repository after validating author and duplication.
      * 
@@ -29,6 +110,7 @@ public class BookService {
      * @throws DuplicateBookException if a book with the same title already exists by the same author.
      * @throws IllegalArgumentException if author username is not found.
      */
+    @Transactional
     public void saveBook(BookRequest bookRequest) {
         // Find the author by username
         UserEntity author = userRepository.findByUsername(bookRequest.getAuthorUsername())
@@ -39,14 +121,18 @@ public class BookService {
             throw new DuplicateBookException("You have already published a book with this title: " + bookRequest.getTitle());
         }
 
-        // Create and save the book entity
+        // Create and save the book entity, then its content in the separate content table
         Book book = new Book();
         book.setBookId(bookRequest.getBookId());
         book.setTitle(bookRequest.getTitle());
-        book.setContent(bookRequest.getContent());
         book.setAuthor(author);
 
-        bookRepository.save(book);
+        book = bookRepository.save(book);
+        BookContent content = bookContentRepository.save(new BookContent(book, bookRequest.getContent()));
+
+        eventPublisher.publishEvent(new BookSavedEvent(new BookSummaryResponse(
+            book.getBookId(), book.getTitle(), author.getUsername(), book.getAverageRating(), book.getReviewCount()),
+            bookRequest.getContent(), content.getStoredAt()));
     }
 
     /**
@@ -61,40 +147,242 @@ public class BookService {
     }
 
     /**
-     * Delete a book by its ID.
+     * Read the layout of the stored content of a book, before streaming it.
      * 
      * @param id Book ID.
+     * @return Layout of the content, including its length in UTF-8 bytes.
+     * @throws BookNotFoundException if the book has no stored content.
      */
+    public BookContentReader.StoredContent openBookContent(int id) {
+        return bookContentReader.open(id);
+    }
+
+    /**
+     * Write a byte range of the content of a book, reading it chunk by chunk.
+     * 
+     * @param content Layout returned by {@link #openBookContent(int)}.
+     * @param start First byte to write.
+     * @param end Last byte to write, inclusive.
+     * @param out Stream receiving the bytes.
+     * @throws IOException if writing to the stream fails.
+     */
+    public void copyBookContent(BookContentReader.StoredContent content, long start, long end, OutputStream out)
+            throws IOException {
+        bookContentReader.copy(content, start, end, out);
+    }
+
+    /**
+     * Delete a book, its content, its rating histogram and its pending review notifications by its ID.
+     * 
+     * @param id Book ID.
+     */
+    @Transactional
     public void deleteBookByID(int id) {
+        ratingHistogramRepository.deleteById(id);
+        outboxRepository.deleteByBookId(id);
+        bookContentRepository.deleteById(id);
         bookRepository.deleteById(id);
+        eventPublisher.publishEvent(new BookDeletedEvent(id));
+    }
+
+    /**
+     * Retrieve the summaries of all books in the repository, ordered by book ID.
+     * Loads the whole catalog; prefer {@link #getBooksAfter(Integer, int)}.
+     * 
+     * @return List of all book summaries.
+     */
+    public List<BookSummaryResponse> getAllBooks() {
+        return bookRepository.findAllSummaries();
     }
 
     /**
-     * Retrieve all books in the repository.
+     * Retrieve one keyset page of book summaries ordered by book ID.
      * 
-     * @return List of all Book entities.
+     * @param after ID of the last book of the previous page, or null for the first page.
+     * @param size Number of books to retrieve (1 to book.page.max-size).
+     * @return Slice of book summaries with IDs greater than {@code after}.
+     * @throws InvalidInputException if size is out of range.
      */
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    public Slice<BookSummaryResponse> getBooksAfter(Integer after, int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new InvalidInputException("Page size must be between 1 and " + maxPageSize);
+        }
+
+        return bookRepository.findSummariesAfter(after == null ? Integer.MIN_VALUE : after, PageRequest.of(0, size));
     }
 
     /**
      * Search books by title containing the given keyword (case-insensitive).
+     * Matches come from the in-memory title index, best first and capped at
+     * book.search.max-results; only the summaries of the matching books are
+     * loaded by ID. Results are served from the search result cache, which
+     * drops them when a committed change affects the keyword or a listed book.
      * 
      * @param keyword Search keyword.
-     * @return List of books matching the title keyword.
+     * @return List of book summaries matching the title keyword.
      */
-    public List<Book> searchBooksByTitle(String keyword) {
-        return bookRepository.findByTitleContainingIgnoreCase(keyword);
+    public List<BookSummaryResponse> searchBooksByTitle(String keyword) {
+        return searchResultCache.get(keyword, () -> findBooksByTitle(keyword));
     }
 
     /**
-     * Get top books ordered by their average rating.
+     * Suggest books whose title starts with the given prefix, best rated first.
+     * Served from the in-memory title trie without any database query.
      * 
-     * @param limit Number of top books to retrieve.
-     * @return List of top-rated books.
+     * @param prefix Start of the title typed so far (case-insensitive).
+     * @param limit Number of suggestions to retrieve (1 to book.suggest.top-n).
+     * @return List of suggested book summaries, empty until the trie is built.
+     * @throws InvalidInputException if limit is out of range.
      */
-    public List<Book> getTopBooksByRating(int limit) {
-        return bookRepository.findTopBooksByAverageRating(limit);
+    public List<BookSummaryResponse> suggestTitles(String prefix, int limit) {
+        if (limit < 1 || limit > maxSuggestions) {
+            throw new InvalidInputException("Limit must be between 1 and " + maxSuggestions);
+        }
+        return titleSuggester.suggest(prefix, limit);
+    }
+
+    /**
+     * Search books by their content, ranked by BM25 relevance.
+     * Hits come from the content search index; only the summaries of the
+     * matching books are loaded, content is never read from the database.
+     * 
+     * @param query Free text query, any of its words may match.
+     * @param limit Number of hits to retrieve (1 to book.search.max-results).
+     * @return List of matching books with their score, best first.
+     * @throws InvalidInputException if the query is blank or limit is out of range.
+     */
+    public List<ContentSearchHitResponse> searchBooksByContent(String query, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new InvalidInputException("Query is mandatory");
+        }
+        if (limit < 1 || limit > maxSearchResults) {
+            throw new InvalidInputException("Limit must be between 1 and " + maxSearchResults);
+        }
+
+        List<SearchHit> hits = contentSearchIndex.search(query, limit);
+        if (hits.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Books deleted since they were indexed have no summary and are skipped
+        Map<Integer, BookSummaryResponse> summaries = bookRepository.findSummariesByIdIn(
+                hits.stream().map(SearchHit::getBookId).collect(Collectors.toList())).stream()
+            .collect(Collectors.toMap(BookSummaryResponse::getBookId, summary -> summary));
+        return hits.stream()
+            .filter(hit -> summaries.containsKey(hit.getBookId()))
+            .map(hit -> {
+                BookSummaryResponse summary = summaries.get(hit.getBookId());
+                return new ContentSearchHitResponse(
+                    summary.getBookId(), summary.getTitle(), summary.getAuthorUsername(), hit.getScore());
+            })
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieve the number of reviews of a book per rating, from 1 to 5 stars.
+     * Served from the rating histogram cache; on a miss only the five counters
+     * of the book are read, never its reviews.
+     * 
+     * @param id Book ID.
+     * @return Rating histogram of the book, all zeros when it has no reviews.
+     * @throws BookNotFoundException if the book does not exist.
+     */
+    public RatingHistogramResponse getRatingHistogram(int id) {
+        return ratingHistogramCache.get(id, this::loadRatingHistogram);
+    }
+
+    /**
+     * Retrieve the current version of the catalog, used to answer conditional requests.
+     * 
+     * @return Version moved by every committed book or review change.
+     */
+    public CatalogVersion getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    /**
+     * Get top books ordered by their average rating, then by review count.
+     * Served from the in-memory leaderboard; the indexed aggregates are only
+     * read when the leaderboard tracks fewer books than requested.
+     * 
+     * @param limit Number of top books to retrieve (1 to book.page.max-size).
+     * @return List of top-rated book summaries.
+     * @throws InvalidInputException if limit is out of range.
+     */
+    public List<BookSummaryResponse> getTopBooksByRating(int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new InvalidInputException("Limit must be between 1 and " + maxPageSize);
+        }
+
+        List<BookSummaryResponse> top = leaderboard.top(limit);
+        return top != null ? top : bookRepository.findTopBookSummaries(PageRequest.of(0, limit));
+    }
+
+    /**
+     * Get the books with the most reviews within a sliding time window.
+     * Served from the trending snapshot, refreshed every book.trending.refresh-ms.
+     * 
+     * @param window Window name, "1h" or "24h".
+     * @param limit Number of books to retrieve (1 to book.trending.top-n).
+     * @return List of trending books with their number of reviews in the window.
+     * @throws InvalidInputException if the window is unknown or limit is out of range.
+     */
+    public List<TrendingBookResponse> getTrendingBooks(String window, int limit) {
+        if (!trendingBooks.hasWindow(window)) {
+            throw new InvalidInputException("Window must be one of " + trendingBooks.getWindows());
+        }
+        if (limit < 1 || limit > trendingBooks.getTopN()) {
+            throw new InvalidInputException("Limit must be between 1 and " + trendingBooks.getTopN());
+        }
+        return trendingBooks.trending(window, limit);
+    }
+
+    /**
+     * Recompute the stored rating aggregates and histograms of all books at startup when
+     * book.rating.recompute-on-startup is enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recomputeRatingAggregatesOnStartup() {
+        if (recomputeRatingsOnStartup) {
+            int updated = bookRepository.recomputeRatingAggregates();
+            ratingHistogramRepository.deleteAllHistograms();
+            int histograms = ratingHistogramRepository.insertHistogramsFromReviews();
+            System.out.println("Recomputed rating aggregates of " + updated + " books and histograms of "
+                + histograms + " reviewed books");
+        }
+    }
+
+    // Rating histogram behind the cache; a book without a histogram row has no reviews yet
+    private RatingHistogramResponse loadRatingHistogram(int id) {
+        return ratingHistogramRepository.findResponseById(id).orElseGet(() -> {
+            if (!bookRepository.existsById(id)) {
+                throw new BookNotFoundException("Book not found with id: " + id);
+            }
+            return new RatingHistogramResponse(id, 0, 0, 0, 0, 0, 0);
+        });
+    }
+
+    // Title search behind the cache
+    private List<BookSummaryResponse> findBooksByTitle(String keyword) {
+        if (!titleSearchIndex.isReady()) {
+            // Index still building at startup: fall back to the table scan, which finds the same
+            // substring matches but returns them by book ID instead of by relevance
+            return bookRepository.findSummariesByTitleContaining(TitleSearchIndex.normalize(keyword),
+                PageRequest.of(0, maxSearchResults));
+        }
+
+        List<Integer> bookIds = titleSearchIndex.search(keyword, maxSearchResults);
+        if (bookIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Restore the index ranking, which the IN query does not preserve
+        Map<Integer, BookSummaryResponse> booksById = bookRepository.findSummariesByIdIn(bookIds).stream()
+            .collect(Collectors.toMap(BookSummaryResponse::getBookId, book -> book));
+        return bookIds.stream()
+            .map(booksById::get)
+            .filter(book -> book != null)
+            .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,84 @@
+package com.bookstore.services;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bookstore.events.BookDeletedEvent;
+import com.bookstore.events.BookSavedEvent;
+import com.bookstore.events.ReviewSavedEvent;
+
+/**
+ * Version of the whole catalog, the entity tag of responses built from it.
+ *
+ * The version moves on every committed book, deletion or review event. Its
+ * listeners run after every other listener of these events, so a new version
+ * is only published once the in-memory views (leaderboard, indexes, caches)
+ * already reflect the change: a response tagged with a version never holds
+ * older data. The tag includes the start time of the application, as the
+ * counter itself restarts from zero.
+ *
+ * The version is local to one node, like the views it tags: the leaderboard
+ * only sees the events of the reviews committed through its own node. It is
+ * not derived from the database on purpose, as a version moved by another
+ * node would tag a body that does not hold that change yet. Revalidation of
+ * these responses is therefore only exact with a single node; behind a load
+ * balancer, nodes answer with different tags and each may keep confirming a
+ * body that misses the reviews committed elsewhere.
+ */
+@Component
+public class CatalogVersion {
+
+    // Distinguishes the counters of successive runs of the application
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    // Current version and the time it was reached, replaced as a whole
+    private volatile Version current = new Version(0, System.currentTimeMillis());
+
+    /**
+     * @return strong entity tag of the current catalog version, quoted
+     */
+    public String getETag() {
+        return "\"" + epoch + "-" + current.number + "\"";
+    }
+
+    /**
+     * @return time of the last catalog change in epoch milliseconds
+     */
+    public long getLastModified() {
+        return current.modifiedAt;
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookSaved(BookSavedEvent event) {
+        bump();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookDeleted(BookDeletedEvent event) {
+        bump();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewSaved(ReviewSavedEvent event) {
+        bump();
+    }
+
+    private synchronized void bump() {
+        current = new Version(current.number + 1, System.currentTimeMillis());
+    }
+
+    private static final class Version {
+        private final long number;
+        private final long modifiedAt;
+
+        private Version(long number, long modifiedAt) {
+            this.number = number;
+            this.modifiedAt = modifiedAt;
+        }
+    }
+}
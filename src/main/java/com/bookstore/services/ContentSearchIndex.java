@@ -0,0 +1,868 @@
+package com.bookstore.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bookstore.events.BookDeletedEvent;
+import com.bookstore.events.BookSavedEvent;
+import com.bookstore.repository.BookContentRepository;
+import com.bookstore.repository.BookContentStampView;
+import com.bookstore.repository.BookContentView;
+import com.bookstore.search.SearchHit;
+import com.bookstore.search.Segment;
+import com.bookstore.search.SegmentWriter;
+import com.bookstore.search.Tokenizer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Incremental inverted index over book contents, ranked with BM25.
+ *
+ * New documents go to an in-memory buffer which is flushed to an immutable,
+ * memory-mapped segment file once it holds enough postings or has waited long
+ * enough. A background merger folds the smallest segments together so the
+ * number of files a query visits stays bounded. A replaced or deleted book is
+ * not rewritten: the index records which generation holds the live version of
+ * every book and ignores postings from any other segment until a merge drops
+ * them. All updates run on a single indexer thread, queries only take the
+ * read lock.
+ *
+ * The index survives restarts. A manifest next to the segment files lists
+ * the published segments and which of their documents are live; it is
+ * replaced atomically after every flush and merge, and segments it does not
+ * list are deleted on open. Every document records when its content was
+ * stored, so at startup only the storage time and size of every book are read
+ * from the database: books added or changed since the manifest was written
+ * are indexed again and deleted ones dropped, their contents loaded in
+ * batches of a bounded number of bytes. Without a usable manifest the same
+ * pass rebuilds the whole index.
+ */
+@Component
+public class ContentSearchIndex {
+
+    // BM25 term frequency saturation and length normalization
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Generation of books whose live version is still in the buffer
+    private static final long BUFFERED = -1;
+
+    // Storage time of contents stored before it was recorded
+    private static final long UNKNOWN_STORED_AT = Long.MIN_VALUE;
+
+    // Number of books whose storage time is read per query when syncing with the database
+    private static final int SYNC_PAGE_SIZE = 1000;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final String MANIFEST = "index.manifest";
+    private static final int MANIFEST_MAGIC = 0x424B4D31; // "BKM1"
+
+    @Autowired
+    BookContentRepository bookContentRepository;
+
+    // Directory holding the segment files
+    @Value("${book.content-search.index-dir:data/content-index}")
+    private String indexDir;
+
+    // Buffered postings that trigger a flush to a new segment
+    @Value("${book.content-search.flush-postings:100000}")
+    private int flushPostings;
+
+    // Maximum time a book waits in the buffer before being flushed
+    @Value("${book.content-search.flush-interval-ms:5000}")
+    private long flushIntervalMs;
+
+    // Number of segments merged together once that many exist
+    @Value("${book.content-search.merge-factor:8}")
+    private int mergeFactor;
+
+    // Stored bytes of content loaded per query when syncing with the database; a larger book is loaded alone
+    @Value("${book.content-search.sync-batch-bytes:16777216}")
+    private long syncBatchBytes;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Published segments, replaced on flush and merge, guarded by lock
+    private List<Segment> segments = new ArrayList<>();
+
+    // Generation and length of the live version of every indexed book, guarded by lock
+    private final Map<Integer, LiveDoc> liveDocs = new HashMap<>();
+    private long totalLength;
+
+    // Unflushed books: term frequencies per book and the same postings per term, guarded by lock
+    private final Map<Integer, Map<String, Integer>> bufferedDocs = new HashMap<>();
+    private final Map<String, Map<Integer, Integer>> bufferedPostings = new HashMap<>();
+    private int bufferedPostingCount;
+
+    private final AtomicLong nextGeneration = new AtomicLong();
+    private final AtomicBoolean mergeScheduled = new AtomicBoolean();
+
+    // Books removed since the manifest was written
+    private final AtomicBoolean manifestDirty = new AtomicBoolean();
+
+    // Serializes manifest writes, so an older state never replaces a newer one
+    private final Object manifestLock = new Object();
+
+    private Path directory;
+    private ScheduledExecutorService indexer;
+    private ExecutorService merger;
+
+    /**
+     * Reopens the index directory and starts the indexer and merger threads.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        open();
+
+        indexer = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "content-indexer"));
+        merger = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "content-merger"));
+        indexer.scheduleWithFixedDelay(() -> run(this::flushNow), flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Brings the index up to date with the database once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleSync() {
+        submit(this::syncNow);
+    }
+
+    /**
+     * Indexes the content of a saved book once its transaction is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookSaved(BookSavedEvent event) {
+        int bookId = event.getBook().getBookId();
+        String content = event.getContent();
+        long storedAt = stamp(event.getContentStoredAt());
+        submit(() -> indexNow(bookId, content, storedAt));
+    }
+
+    /**
+     * Removes a deleted book once its transaction is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookDeleted(BookDeletedEvent event) {
+        int bookId = event.getBookId();
+        submit(() -> deleteNow(bookId));
+    }
+
+    /**
+     * Flushes pending books and deletions and waits for running merges before shutdown.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        indexer.shutdown();
+        indexer.awaitTermination(30, TimeUnit.SECONDS);
+        run(this::flushNow);
+        merger.shutdown();
+        merger.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Finds the books whose content best matches the query, scored with BM25.
+     * Query terms are combined with OR; ties go to the lower book ID.
+     *
+     * @param query      free text query
+     * @param maxResults maximum number of hits returned
+     * @return hits ordered by descending score
+     */
+    public List<SearchHit> search(String query, int maxResults) {
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        if (terms.isEmpty() || maxResults < 1) {
+            return new ArrayList<>();
+        }
+
+        Map<Integer, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int docCount = liveDocs.size();
+            if (docCount == 0) {
+                return new ArrayList<>();
+            }
+            double avgLength = Math.max(1.0, (double) totalLength / docCount);
+
+            for (String term : terms) {
+                Map<Integer, Integer> buffered = bufferedPostings.getOrDefault(term, Map.of());
+                int[] termIndexes = new int[segments.size()];
+
+                // Postings of replaced or deleted versions count until a merge drops them
+                int docFreq = buffered.size();
+                for (int i = 0; i < termIndexes.length; i++) {
+                    termIndexes[i] = segments.get(i).findTerm(term);
+                    if (termIndexes[i] >= 0) {
+                        docFreq += segments.get(i).docFreq(termIndexes[i]);
+                    }
+                }
+                if (docFreq == 0) {
+                    continue;
+                }
+                docFreq = Math.min(docFreq, docCount);
+                double idf = Math.log(1 + (docCount - docFreq + 0.5) / (docFreq + 0.5));
+
+                for (Map.Entry<Integer, Integer> posting : buffered.entrySet()) {
+                    int length = liveDocs.get(posting.getKey()).length;
+                    scores.merge(posting.getKey(), bm25(idf, posting.getValue(), length, avgLength), Double::sum);
+                }
+
+                for (int i = 0; i < termIndexes.length; i++) {
+                    if (termIndexes[i] < 0) {
+                        continue;
+                    }
+                    Segment segment = segments.get(i);
+                    int termIndex = termIndexes[i];
+                    for (int p = 0; p < segment.docFreq(termIndex); p++) {
+                        int ordinal = segment.postingOrdinal(termIndex, p);
+                        int bookId = segment.bookId(ordinal);
+                        LiveDoc live = liveDocs.get(bookId);
+                        if (live == null || live.generation != segment.getGeneration()) {
+                            continue;
+                        }
+                        double score = bm25(idf, segment.postingFrequency(termIndex, p), live.length, avgLength);
+                        scores.merge(bookId, score, Double::sum);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Worst hit on top, so it is the one evicted when the queue overflows
+        Comparator<SearchHit> best = Comparator.comparingDouble((SearchHit hit) -> -hit.getScore())
+            .thenComparingInt(SearchHit::getBookId);
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(best.reversed());
+        for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+            top.add(new SearchHit(score.getKey(), score.getValue()));
+            if (top.size() > maxResults) {
+                top.poll();
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(top);
+        hits.sort(best);
+        return hits;
+    }
+
+    /**
+     * @return number of segment files currently searched
+     */
+    public int getSegmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Creates the index directory and reopens the segments listed in the
+     * manifest with their live documents. Unlisted segments, left by a flush
+     * or merge interrupted before its manifest was written, are deleted, and
+     * so is every segment when the manifest is missing or unreadable; the sync
+     * at startup then indexes whatever is missing.
+     */
+    void open() throws IOException {
+        directory = Paths.get(indexDir);
+        Files.createDirectories(directory);
+
+        Set<Long> listed;
+        try {
+            listed = readManifest();
+        } catch (IOException e) {
+            System.err.println("Content index manifest unusable, the index is rebuilt: " + e.getMessage());
+            lock.writeLock().lock();
+            try {
+                segments = new ArrayList<>();
+                liveDocs.clear();
+                totalLength = 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            listed = Set.of();
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.forEach(files::add);
+        }
+        for (Path file : files) {
+            long generation = generationOf(file);
+            if (file.getFileName().toString().endsWith(".tmp") || (generation >= 0 && !listed.contains(generation))) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Brings the index up to date with the database: indexes the books added
+     * or changed since their indexed version was stored and removes the books
+     * the database no longer has. Reads the ID, storage time and size of every
+     * book by pages, and the contents to index in batches of at most
+     * sync-batch-bytes stored bytes. Runs on the indexer thread, so books
+     * saved or deleted meanwhile are applied after it.
+     */
+    void syncNow() throws IOException {
+        int[] indexed;
+        lock.readLock().lock();
+        try {
+            indexed = liveDocs.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Both lists are in ID order, so indexed books skipped by the walk are gone from the database
+        int next = 0;
+        Map<Integer, Long> batch = new LinkedHashMap<>();
+        long batchBytes = 0;
+        int after = Integer.MIN_VALUE;
+        List<BookContentStampView> page;
+        do {
+            page = bookContentRepository.findStampsAfter(after, PageRequest.of(0, SYNC_PAGE_SIZE));
+            for (BookContentStampView book : page) {
+                int bookId = book.getBookId();
+                while (next < indexed.length && indexed[next] < bookId) {
+                    deleteNow(indexed[next++]);
+                }
+                if (next < indexed.length && indexed[next] == bookId) {
+                    next++;
+                }
+                long storedAt = stamp(book.getStoredAt());
+                if (!isIndexed(bookId, storedAt)) {
+                    if (!batch.isEmpty() && batchBytes + book.getStoredBytes() > syncBatchBytes) {
+                        indexBatch(batch);
+                        batch.clear();
+                        batchBytes = 0;
+                    }
+                    batch.put(bookId, storedAt);
+                    batchBytes += book.getStoredBytes();
+                }
+                after = bookId;
+            }
+        } while (page.size() == SYNC_PAGE_SIZE);
+        while (next < indexed.length) {
+            deleteNow(indexed[next++]);
+        }
+        indexBatch(batch);
+        flushNow();
+    }
+
+    /**
+     * Adds or replaces the content of a book, flushing the buffer when full.
+     *
+     * @param storedAt time the content was stored, see {@link #stamp(LocalDateTime)}
+     */
+    void indexNow(int bookId, String content, long storedAt) throws IOException {
+        Map<String, Integer> frequencies = Tokenizer.termFrequencies(content);
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+        boolean full;
+        lock.writeLock().lock();
+        try {
+            removeLive(bookId);
+            bufferedDocs.put(bookId, frequencies);
+            for (Map.Entry<String, Integer> term : frequencies.entrySet()) {
+                bufferedPostings.computeIfAbsent(term.getKey(), key -> new HashMap<>()).put(bookId, term.getValue());
+            }
+            bufferedPostingCount += frequencies.size();
+            setLive(bookId, new LiveDoc(BUFFERED, -1, length, storedAt));
+            full = bufferedPostingCount >= flushPostings;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (full) {
+            flushNow();
+        }
+    }
+
+    /**
+     * Removes a book from the index.
+     */
+    void deleteNow(int bookId) {
+        lock.writeLock().lock();
+        try {
+            if (removeLive(bookId)) {
+                manifestDirty.set(true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered books to a new segment, publishes it and writes the
+     * manifest; with an empty buffer, only writes the manifest if books were
+     * removed since the last one.
+     * Only the indexer thread changes the buffer, so it is written under the
+     * read lock and queries keep running meanwhile.
+     */
+    void flushNow() throws IOException {
+        long generation;
+        Path path;
+        Map<Integer, Integer> ordinals;
+        lock.readLock().lock();
+        try {
+            if (bufferedDocs.isEmpty()) {
+                generation = BUFFERED;
+                path = null;
+                ordinals = null;
+            } else {
+                generation = nextGeneration.getAndIncrement();
+                path = segmentPath(generation);
+                ordinals = writeBuffer(path);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (path == null) {
+            if (manifestDirty.get()) {
+                saveManifest();
+            }
+            return;
+        }
+        Segment segment = Segment.open(path, generation);
+
+        lock.writeLock().lock();
+        try {
+            for (Integer bookId : bufferedDocs.keySet()) {
+                LiveDoc doc = liveDocs.get(bookId);
+                doc.generation = generation;
+                doc.ordinal = ordinals.get(bookId);
+            }
+            List<Segment> published = new ArrayList<>(segments);
+            published.add(segment);
+            segments = published;
+            bufferedDocs.clear();
+            bufferedPostings.clear();
+            bufferedPostingCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        saveManifest();
+        scheduleMergeIfNeeded();
+    }
+
+    /**
+     * Merges the merge-factor smallest segments into one, keeping only the
+     * books whose live version they hold. The new segment is written without
+     * any lock; books replaced or deleted meanwhile keep their newer state.
+     *
+     * @return true if a merge happened
+     */
+    boolean mergeNow() throws IOException {
+        List<Segment> sources;
+        List<BitSet> live = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (segments.size() < Math.max(2, mergeFactor)) {
+                return false;
+            }
+            sources = new ArrayList<>(segments);
+            sources.sort(Comparator.comparingInt(Segment::getDocCount));
+            sources = sources.subList(0, Math.max(2, mergeFactor));
+            for (Segment segment : sources) {
+                BitSet ordinals = new BitSet(segment.getDocCount());
+                for (int ordinal = 0; ordinal < segment.getDocCount(); ordinal++) {
+                    LiveDoc doc = liveDocs.get(segment.bookId(ordinal));
+                    if (doc != null && doc.generation == segment.getGeneration()) {
+                        ordinals.set(ordinal);
+                    }
+                }
+                live.add(ordinals);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long generation = nextGeneration.getAndIncrement();
+        Path path = segmentPath(generation);
+        int[][] remapped = writeMerged(path, sources, live);
+        Segment merged = Segment.open(path, generation);
+
+        lock.writeLock().lock();
+        try {
+            for (int s = 0; s < sources.size(); s++) {
+                Segment source = sources.get(s);
+                BitSet ordinals = live.get(s);
+                for (int ordinal = ordinals.nextSetBit(0); ordinal >= 0; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+                    LiveDoc doc = liveDocs.get(source.bookId(ordinal));
+                    if (doc != null && doc.generation == source.getGeneration()) {
+                        doc.generation = generation;
+                        doc.ordinal = remapped[s][ordinal];
+                    }
+                }
+            }
+            List<Segment> published = new ArrayList<>(segments);
+            published.removeAll(sources);
+            published.add(merged);
+            segments = published;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // No query nor manifest can reach the sources any more; open mappings survive the unlink
+        saveManifest();
+        delete(sources);
+        return true;
+    }
+
+    // Caller holds the read lock and is the indexer thread; returns the ordinal of every buffered book
+    private Map<Integer, Integer> writeBuffer(Path path) throws IOException {
+        try (SegmentWriter writer = new SegmentWriter(path)) {
+            Map<Integer, Integer> ordinals = new HashMap<>();
+            for (Integer bookId : bufferedDocs.keySet()) {
+                LiveDoc doc = liveDocs.get(bookId);
+                ordinals.put(bookId, writer.addDocument(bookId, doc.length, doc.storedAt));
+            }
+
+            String[] terms = bufferedPostings.keySet().toArray(new String[0]);
+            Arrays.sort(terms);
+            for (String term : terms) {
+                // Ordinal in the high bits, so sorting orders postings by document
+                Map<Integer, Integer> postings = bufferedPostings.get(term);
+                long[] sorted = new long[postings.size()];
+                int i = 0;
+                for (Map.Entry<Integer, Integer> posting : postings.entrySet()) {
+                    sorted[i++] = ((long) ordinals.get(posting.getKey()) << 32) | posting.getValue();
+                }
+                Arrays.sort(sorted);
+                for (long posting : sorted) {
+                    writer.addPosting(term, (int) (posting >>> 32), (int) posting);
+                }
+            }
+            writer.finish();
+            return ordinals;
+        }
+    }
+
+    // K-way merge of the sorted term dictionaries of the sources; returns the new ordinal of every live source ordinal
+    private static int[][] writeMerged(Path path, List<Segment> sources, List<BitSet> live) throws IOException {
+        try (SegmentWriter writer = new SegmentWriter(path)) {
+            int[][] remapped = new int[sources.size()][];
+            for (int s = 0; s < sources.size(); s++) {
+                Segment source = sources.get(s);
+                remapped[s] = new int[source.getDocCount()];
+                Arrays.fill(remapped[s], -1);
+                BitSet ordinals = live.get(s);
+                for (int ordinal = ordinals.nextSetBit(0); ordinal >= 0; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+                    remapped[s][ordinal] = writer.addDocument(source.bookId(ordinal), source.length(ordinal),
+                        source.storedAt(ordinal));
+                }
+            }
+
+            // Cursor: {source, term index}, ordered by term
+            PriorityQueue<int[]> cursors = new PriorityQueue<>(
+                Comparator.comparing((int[] cursor) -> sources.get(cursor[0]).term(cursor[1])));
+            for (int s = 0; s < sources.size(); s++) {
+                if (sources.get(s).getTermCount() > 0) {
+                    cursors.add(new int[] { s, 0 });
+                }
+            }
+
+            while (!cursors.isEmpty()) {
+                String term = sources.get(cursors.peek()[0]).term(cursors.peek()[1]);
+                while (!cursors.isEmpty() && sources.get(cursors.peek()[0]).term(cursors.peek()[1]).equals(term)) {
+                    int[] cursor = cursors.poll();
+                    Segment source = sources.get(cursor[0]);
+                    for (int p = 0; p < source.docFreq(cursor[1]); p++) {
+                        int ordinal = remapped[cursor[0]][source.postingOrdinal(cursor[1], p)];
+                        if (ordinal >= 0) {
+                            writer.addPosting(term, ordinal, source.postingFrequency(cursor[1], p));
+                        }
+                    }
+                    if (++cursor[1] < source.getTermCount()) {
+                        cursors.add(cursor);
+                    }
+                }
+            }
+            writer.finish();
+            return remapped;
+        }
+    }
+
+    // Reopens the segments listed in the manifest and their live documents; returns their generations
+    private Set<Long> readManifest() throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        if (!Files.exists(manifest)) {
+            return Set.of();
+        }
+        Set<Long> listed = new HashSet<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifest)))) {
+            if (in.readInt() != MANIFEST_MAGIC) {
+                throw new IOException("Not a content index manifest: " + manifest);
+            }
+            long next = in.readLong();
+            int segmentCount = in.readInt();
+            lock.writeLock().lock();
+            try {
+                for (int s = 0; s < segmentCount; s++) {
+                    long generation = in.readLong();
+                    long[] words = new long[in.readInt()];
+                    for (int w = 0; w < words.length; w++) {
+                        words[w] = in.readLong();
+                    }
+                    Segment segment = Segment.open(segmentPath(generation), generation);
+                    BitSet live = BitSet.valueOf(words);
+                    if (live.length() > segment.getDocCount()) {
+                        throw new IOException("Manifest does not match segment " + segment.getPath());
+                    }
+                    for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+                        setLive(segment.bookId(ordinal),
+                            new LiveDoc(generation, ordinal, segment.length(ordinal), segment.storedAt(ordinal)));
+                    }
+                    segments.add(segment);
+                    listed.add(generation);
+                    next = Math.max(next, generation + 1);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            nextGeneration.set(next);
+        }
+        return listed;
+    }
+
+    // Writes the manifest, and leaves it to the next flush if that fails
+    private void saveManifest() throws IOException {
+        manifestDirty.set(false);
+        try {
+            writeManifest();
+        } catch (IOException e) {
+            manifestDirty.set(true);
+            throw e;
+        }
+    }
+
+    // Replaces the manifest with the published segments and the ordinals of their live documents
+    private void writeManifest() throws IOException {
+        synchronized (manifestLock) {
+            List<Segment> published;
+            Map<Long, BitSet> live = new HashMap<>();
+            long next;
+            lock.readLock().lock();
+            try {
+                published = segments;
+                next = nextGeneration.get();
+                for (Segment segment : published) {
+                    live.put(segment.getGeneration(), new BitSet(segment.getDocCount()));
+                }
+                for (LiveDoc doc : liveDocs.values()) {
+                    // Buffered books are in no segment yet
+                    BitSet ordinals = live.get(doc.generation);
+                    if (ordinals != null) {
+                        ordinals.set(doc.ordinal);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            Path temp = directory.resolve(MANIFEST + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MANIFEST_MAGIC);
+                out.writeLong(next);
+                out.writeInt(published.size());
+                for (Segment segment : published) {
+                    long[] words = live.get(segment.getGeneration()).toLongArray();
+                    out.writeLong(segment.getGeneration());
+                    out.writeInt(words.length);
+                    for (long word : words) {
+                        out.writeLong(word);
+                    }
+                }
+            }
+            Files.move(temp, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Whether the version of the book stored at the given time is the one indexed
+    private boolean isIndexed(int bookId, long storedAt) {
+        lock.readLock().lock();
+        try {
+            LiveDoc doc = liveDocs.get(bookId);
+            return doc != null && doc.storedAt == storedAt;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Loads and indexes the contents of the given books, with their storage time
+    private void indexBatch(Map<Integer, Long> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (BookContentView book : bookContentRepository.findContentByBookIdIn(batch.keySet())) {
+            indexNow(book.getBookId(), book.getContent(), batch.get(book.getBookId()));
+        }
+    }
+
+    private void scheduleMergeIfNeeded() {
+        if (merger == null || getSegmentCount() < Math.max(2, mergeFactor)) {
+            return;
+        }
+        if (mergeScheduled.compareAndSet(false, true)) {
+            merger.execute(() -> {
+                try {
+                    while (mergeNow()) {
+                        // keep merging while enough segments remain
+                    }
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Content index merge failed: " + e);
+                } finally {
+                    mergeScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    // Caller holds the write lock
+    private void setLive(int bookId, LiveDoc doc) {
+        removeLive(bookId);
+        liveDocs.put(bookId, doc);
+        totalLength += doc.length;
+    }
+
+    // Caller holds the write lock; returns whether the book was indexed
+    private boolean removeLive(int bookId) {
+        LiveDoc doc = liveDocs.remove(bookId);
+        if (doc == null) {
+            return false;
+        }
+        totalLength -= doc.length;
+
+        Map<String, Integer> buffered = bufferedDocs.remove(bookId);
+        if (buffered != null) {
+            for (String term : buffered.keySet()) {
+                Map<Integer, Integer> postings = bufferedPostings.get(term);
+                postings.remove(bookId);
+                if (postings.isEmpty()) {
+                    bufferedPostings.remove(term);
+                }
+            }
+            bufferedPostingCount -= buffered.size();
+        }
+        return true;
+    }
+
+    private void submit(IndexTask task) {
+        indexer.execute(() -> run(task));
+    }
+
+    // Must not throw: an exception would cancel the periodic flush for good
+    private static void run(IndexTask task) {
+        try {
+            task.run();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Content index update failed: " + e);
+        }
+    }
+
+    private static void delete(List<Segment> obsolete) {
+        for (Segment segment : obsolete) {
+            try {
+                Files.deleteIfExists(segment.getPath());
+            } catch (IOException e) {
+                System.err.println("Cannot delete segment " + segment.getPath() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private Path segmentPath(long generation) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, generation, SEGMENT_SUFFIX));
+    }
+
+    // Generation encoded in a segment file name, -1 for any other file
+    private static long generationOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Storage time of a content as indexed; only compared for equality, so the zone does not matter.
+     */
+    static long stamp(LocalDateTime storedAt) {
+        return storedAt == null ? UNKNOWN_STORED_AT : storedAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static double bm25(double idf, int tf, int length, double avgLength) {
+        return idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    // Index update that may touch segment files
+    @FunctionalInterface
+    interface IndexTask {
+        void run() throws IOException;
+    }
+
+    // Where the live version of a book is stored, how many terms it has and when its content was stored
+    private static final class LiveDoc {
+        private long generation;
+        private int ordinal;
+        private final int length;
+        private final long storedAt;
+
+        private LiveDoc(long generation, int ordinal, int length, long storedAt) {
+            this.generation = generation;
+            this.ordinal = ordinal;
+            this.length = length;
+            this.storedAt = storedAt;
+        }
+    }
+}
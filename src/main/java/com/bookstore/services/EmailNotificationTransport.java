@@ -0,0 +1,21 @@
+package com.bookstore.services;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default transport: sends the digests to authors by email on the notification executor.
+ */
+@Component
+public class EmailNotificationTransport implements NotificationTransport {
+
+    @Autowired
+    NotificationService notificationService;
+
+    @Override
+    public CompletableFuture<Void> send(String authorEmail, String bookTitle, int reviewCount) {
+        return notificationService.send(authorEmail, bookTitle, reviewCount);
+    }
+}
@@ -0,0 +1,295 @@
+package com.bookstore.services;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstore.entity.DeadLetterNotification;
+import com.bookstore.entity.NotificationOutbox;
+import com.bookstore.metrics.MetricsSource;
+import com.bookstore.repository.DeadLetterNotificationRepository;
+import com.bookstore.repository.NotificationOutboxRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sends the notifications of the outbox table as digests.
+ *
+ * Reviews write their notification to the outbox in their own transaction,
+ * due at the end of the digest window, so a notification is never lost by a
+ * crash nor sent for a rolled back review. A poller thread claims the due
+ * rows in batches, along with the rows of the same books still waiting for
+ * their window, and sends one digest per author and book. Claiming moves the
+ * rows' due time a lease ahead and commits, so no lock is held while sending
+ * and the rows of a node that dies mid-send are only delayed by the lease; a
+ * poll waits for its digests for half the lease and leaves the rows of the
+ * digests still being sent to a poll after the lease.
+ * Rows are deleted once their digest is sent. The rows of a failed digest are
+ * due again after the backoff of the {@link NotificationRetryPolicy}, and
+ * become a dead letter after its max-attempts failures. Rows are claimed with
+ * SKIP LOCKED, so the pollers of several nodes share the outbox without
+ * waiting on each other. Delivery is at least once: a digest whose outcome is
+ * not recorded before its lease ends is sent again.
+ */
+@Component
+public class NotificationOutboxPoller implements MetricsSource {
+
+    @Autowired
+    NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    DeadLetterNotificationRepository deadLetterRepository;
+
+    @Autowired
+    NotificationTransport transport;
+
+    @Autowired
+    NotificationRetryPolicy retryPolicy;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    // Delay between two polls of an outbox found drained
+    @Value("${notification.outbox.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    // Number of due notifications claimed per poll
+    @Value("${notification.outbox.batch-size:100}")
+    private int batchSize;
+
+    // Time another poll waits before claiming the notifications of digests still being sent;
+    // a poll waits for its digests for half of it, so their outcome is recorded before the lease ends
+    @Value("${notification.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    private ScheduledExecutorService poller;
+
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong digests = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::drainQuietly, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        poller.shutdown();
+        poller.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Polls until fewer than a batch of notifications are due.
+     *
+     * @return number of notifications delivered
+     */
+    public int drain() {
+        int total = 0;
+        Poll poll;
+        do {
+            poll = poll();
+            total += poll.delivered();
+        } while (poll.due() == batchSize);
+        return total;
+    }
+
+    /**
+     * Claims one batch of due notifications, sends their digests and records the outcome.
+     *
+     * @return number of notifications delivered
+     */
+    public int pollOnce() {
+        return poll().delivered();
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "notification.outbox";
+    }
+
+    @Override
+    public Map<String, Number> getMetrics() {
+        long sentDigests = digests.get();
+        return Map.of(
+            "polls", polls.get(),
+            "claimed", claimed.get(),
+            "delivered", delivered.get(),
+            "digests", sentDigests,
+            "failed", failed.get(),
+            "expired", expired.get(),
+            "dead-lettered", deadLettered.get(),
+            "notifications-per-digest", sentDigests == 0 ? 0.0 : (double) delivered.get() / sentDigests);
+    }
+
+    private Poll poll() {
+        polls.incrementAndGet();
+        LocalDateTime now = LocalDateTime.now();
+        Claim claim = transactionTemplate.execute(status -> claim(now));
+        List<Digest> batch = claim.digests();
+        if (batch.isEmpty()) {
+            return new Poll(0, 0);
+        }
+
+        for (Digest digest : batch) {
+            try {
+                digest.outcome = transport.send(digest.authorEmail, digest.bookTitle, digest.reviewCount);
+            } catch (RuntimeException e) {
+                digest.outcome = CompletableFuture.failedFuture(e);
+            }
+        }
+        try {
+            CompletableFuture.allOf(batch.stream().map(digest -> digest.outcome).toArray(CompletableFuture[]::new))
+                .get(leaseMs / 2, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Recorded digest by digest below
+        } catch (InterruptedException e) {
+            // The claimed rows are sent again once their lease ends
+            Thread.currentThread().interrupt();
+            return new Poll(0, 0);
+        }
+
+        int count = transactionTemplate.execute(status -> record(batch, LocalDateTime.now()));
+        delivered.addAndGet(count);
+        return new Poll(claim.due(), count);
+    }
+
+    // Locks the due rows and the waiting rows of their books, groups them into digests and leases them
+    private Claim claim(LocalDateTime now) {
+        List<NotificationOutbox> rows = new ArrayList<>(outboxRepository.claimDue(now, PageRequest.of(0, batchSize)));
+        int due = rows.size();
+        if (rows.isEmpty()) {
+            return new Claim(0, List.of());
+        }
+        Set<Integer> bookIds = rows.stream().map(NotificationOutbox::getBookId).collect(Collectors.toSet());
+        Map<String, Digest> byAuthorAndBook = new LinkedHashMap<>();
+        for (NotificationOutbox row : rows) {
+            byAuthorAndBook.computeIfAbsent(row.getAuthorEmail() + ":" + row.getBookId(), key -> new Digest(row)).add(row);
+        }
+        // Reviews still in their window join the digest now rather than start a digest of their own
+        for (NotificationOutbox row : outboxRepository.claimWaiting(bookIds, now)) {
+            Digest digest = byAuthorAndBook.get(row.getAuthorEmail() + ":" + row.getBookId());
+            if (digest != null) {
+                digest.add(row);
+                rows.add(row);
+            }
+        }
+        // The claimed rows are managed, the lease is written on commit
+        LocalDateTime leaseEnd = now.plus(leaseMs, ChronoUnit.MILLIS);
+        for (NotificationOutbox row : rows) {
+            row.setClaimedAt(now);
+            row.setNextAttemptAt(leaseEnd);
+        }
+        claimed.addAndGet(rows.size());
+        return new Claim(due, new ArrayList<>(byAuthorAndBook.values()));
+    }
+
+    // Deletes the rows of sent digests, reschedules or dead-letters the failed ones
+    private int record(List<Digest> batch, LocalDateTime now) {
+        List<Long> done = new ArrayList<>();
+        int count = 0;
+        for (Digest digest : batch) {
+            if (!digest.outcome.isDone()) {
+                // Still sending: the rows are due again once the lease ends
+                expired.incrementAndGet();
+                continue;
+            }
+            Throwable error;
+            try {
+                digest.outcome.join();
+                digests.incrementAndGet();
+                done.addAll(digest.ids);
+                count += digest.ids.size();
+                continue;
+            } catch (CompletionException | CancellationException e) {
+                error = e.getCause() != null ? e.getCause() : e;
+            }
+            failed.incrementAndGet();
+            int attempts = digest.attempts + 1;
+            System.err.println("Notification digest to " + digest.authorEmail + " failed (attempt " + attempts + "): "
+                + error.getMessage());
+            if (retryPolicy.isExhausted(attempts)) {
+                deadLettered.incrementAndGet();
+                String message = String.valueOf(error.getMessage());
+                deadLetterRepository.save(new DeadLetterNotification(digest.authorEmail, digest.bookTitle,
+                    digest.reviewCount, attempts, message.substring(0, Math.min(1000, message.length())), now));
+                done.addAll(digest.ids);
+            } else {
+                outboxRepository.reschedule(digest.ids, attempts,
+                    now.plus(retryPolicy.backoffMs(attempts), ChronoUnit.MILLIS));
+            }
+        }
+        if (!done.isEmpty()) {
+            outboxRepository.deleteByIdIn(done);
+        }
+        return count;
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            System.err.println("Notification outbox poll failed: " + e.getMessage());
+        }
+    }
+
+    // Number of due notifications claimed by a poll, and their digests
+    private record Claim(int due, List<Digest> digests) {
+    }
+
+    // Number of due notifications claimed by a poll and of notifications it delivered
+    private record Poll(int due, int delivered) {
+    }
+
+    // Notifications of one author and book, sent as one digest
+    private static final class Digest {
+
+        private final String authorEmail;
+        private final String bookTitle;
+        private final List<Long> ids = new ArrayList<>();
+        private int reviewCount;
+        private int attempts;
+        private CompletableFuture<Void> outcome;
+
+        private Digest(NotificationOutbox first) {
+            this.authorEmail = first.getAuthorEmail();
+            this.bookTitle = first.getBookTitle();
+        }
+
+        private void add(NotificationOutbox row) {
+            ids.add(row.getId());
+            reviewCount += row.getReviewCount();
+            attempts = Math.max(attempts, row.getAttempts());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.bookstore.services;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * When a notification whose send failed is sent again, and when it is given up.
+ *
+ * The n-th retry of a notification waits base-delay-ms * 2^(n-1), capped at
+ * max-delay-ms, of which a random half is jitter so that notifications
+ * failing together do not retry together. A notification that failed
+ * max-attempts times becomes a dead letter. The retries themselves are
+ * scheduled in the database by the {@link NotificationOutboxPoller}, so they
+ * survive a restart and are shared by the nodes.
+ */
+@Component
+public class NotificationRetryPolicy {
+
+    // Delay before the first retry
+    @Value("${notification.retry.base-delay-ms:1000}")
+    private long baseDelayMs;
+
+    // Longest delay between two retries
+    @Value("${notification.retry.max-delay-ms:300000}")
+    private long maxDelayMs;
+
+    // Number of failed sends after which a notification becomes a dead letter
+    @Value("${notification.retry.max-attempts:6}")
+    private int maxAttempts;
+
+    /**
+     * Delay before the retry that follows a number of failed sends: exponential, capped, half of it random.
+     *
+     * @param attempts number of failed sends so far, at least 1
+     * @return delay in milliseconds
+     */
+    public long backoffMs(int attempts) {
+        long delay = baseDelayMs << Math.min(attempts - 1, 30);
+        delay = delay <= 0 || delay > maxDelayMs ? maxDelayMs : delay;
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+
+    /**
+     * @param attempts number of failed sends so far
+     * @return whether the notification is given up as a dead letter
+     */
+    public boolean isExhausted(int attempts) {
+        return attempts >= maxAttempts;
+    }
+}
@@ -1,18 +1,206 @@
 package com.bookstore.services;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.bookstore.metrics.MetricsSource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sends review notifications to authors on a bounded executor.
+ *
+ * A fixed number of threads, platform or virtual, send the notifications
+ * queued in a bounded queue, so a burst of reviews costs queue slots rather
+ * than threads. When the queue is full the overflow policy decides: drop the
+ * new notification, drop the oldest queued one, or send it on the calling
+ * thread, which slows the caller down to the pace of the senders. On shutdown
+ * the queued notifications are sent for up to shutdown-timeout-ms, the rest
+ * are dropped. Callers learn the outcome of each notification, dropped
+ * included, from a future; the outbox keeps a notification until it is sent
+ * and schedules its retries.
+ */
 @Service
-public class NotificationService {
-    
+public class NotificationService implements MetricsSource {
+
+    public static final String DROP_NEWEST = "drop-newest";
+    public static final String DROP_OLDEST = "drop-oldest";
+    public static final String CALLER_RUNS = "caller-runs";
+
+    // Number of notifications sent concurrently
+    @Value("${notification.executor.threads:8}")
+    private int threads;
+
+    // Send on virtual threads, which makes thousands of concurrent sends cheap
+    @Value("${notification.executor.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    // Maximum number of notifications waiting for a thread
+    @Value("${notification.executor.queue-capacity:10000}")
+    private int queueCapacity;
+
+    // What happens to a notification when the queue is full: drop-newest, drop-oldest or caller-runs
+    @Value("${notification.executor.overflow-policy:drop-newest}")
+    private String overflowPolicy;
+
+    // Maximum time spent sending the queued notifications on shutdown
+    @Value("${notification.executor.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    // Simulated time to send one notification
+    @Value("${notification.send-delay-ms:2000}")
+    private long sendDelayMs;
+
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        if (!List.of(DROP_NEWEST, DROP_OLDEST, CALLER_RUNS).contains(overflowPolicy)) {
+            throw new IllegalStateException("Unknown notification overflow policy: " + overflowPolicy);
+        }
+        ThreadFactory threadFactory = virtualThreads
+            ? Thread.ofVirtual().name("notification-", 0).factory()
+            : Thread.ofPlatform().name("notification-", 0).daemon(true).factory();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), threadFactory, this::overflow);
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Sends the queued notifications, then interrupts the ones still running
+     * once the shutdown timeout elapsed.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+            List<Runnable> pending = executor.shutdownNow();
+            pending.forEach(this::drop);
+            System.err.println("Dropped " + pending.size() + " queued notifications on shutdown");
+            // Let the interrupted sends record their failure
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
     /**
-     * Sends notification to the author asynchronously using a separate thread.
-     * 
+     * Queues one notification to the author; never blocks unless the overflow policy is caller-runs.
+     *
      * @param authorEmail Email address of the author to notify.
-     * @param bookTitle Title of the published book.
+     * @param bookTitle Title of the reviewed book.
+     * @param reviewCount Number of new reviews the notification reports.
+     * @return future completed once the notification is sent, or exceptionally if it failed or was dropped
      */
-    public void notifyAuthor(String authorEmail, String bookTitle) {
-        NotificationThread notificationThread = new NotificationThread(authorEmail, bookTitle);
-        notificationThread.start();  // Start notification in a separate thread to avoid blocking
+    public CompletableFuture<Void> send(String authorEmail, String bookTitle, int reviewCount) {
+        NotificationTask task = new NotificationTask(authorEmail, bookTitle, reviewCount, sendDelayMs);
+        CompletableFuture<Void> outcome = new CompletableFuture<>();
+        submitted.incrementAndGet();
+        executor.execute(new Delivery(task, outcome));
+        return outcome;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "notification";
+    }
+
+    @Override
+    public Map<String, Number> getMetrics() {
+        long delivered = sent.get() + failed.get();
+        return Map.of(
+            "submitted", submitted.get(),
+            "sent", sent.get(),
+            "failed", failed.get(),
+            "dropped", dropped.get(),
+            "caller-runs", callerRuns.get(),
+            "queued", executor.getQueue().size(),
+            "active", executor.getActiveCount(),
+            "average-latency-ms", delivered == 0 ? 0.0 : totalLatencyNanos.get() / 1e6 / delivered,
+            "max-latency-ms", maxLatencyNanos.get() / 1e6);
+    }
+
+    private void deliver(NotificationTask task, CompletableFuture<Void> outcome) {
+        try {
+            task.send();
+            sent.incrementAndGet();
+            outcome.complete(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+            System.err.println("Notification to " + task.getAuthorEmail() + " interrupted: " + e.getMessage());
+            outcome.completeExceptionally(e);
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            System.err.println("Notification to " + task.getAuthorEmail() + " failed: " + e.getMessage());
+            outcome.completeExceptionally(e);
+        } finally {
+            long latency = System.nanoTime() - task.getQueuedAtNanos();
+            totalLatencyNanos.addAndGet(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+    }
+
+    // Rejection handler, called when the queue is full or the executor is shut down
+    private void overflow(Runnable notification, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            drop(notification);
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_OLDEST -> {
+                Runnable oldest = executor.getQueue().poll();
+                if (oldest != null) {
+                    drop(oldest);
+                }
+                executor.execute(notification);
+            }
+            case CALLER_RUNS -> {
+                callerRuns.incrementAndGet();
+                notification.run();
+            }
+            default -> drop(notification);
+        }
+    }
+
+    private void drop(Runnable notification) {
+        dropped.incrementAndGet();
+        Delivery delivery = (Delivery) notification;
+        delivery.outcome.completeExceptionally(
+            new RejectedExecutionException("Notification to " + delivery.task.getAuthorEmail() + " dropped"));
+    }
+
+    // Queued send of a notification, with the future of the caller waiting for its outcome
+    private final class Delivery implements Runnable {
+
+        private final NotificationTask task;
+        private final CompletableFuture<Void> outcome;
+
+        private Delivery(NotificationTask task, CompletableFuture<Void> outcome) {
+            this.task = task;
+            this.outcome = outcome;
+        }
+
+        @Override
+        public void run() {
+            deliver(task, outcome);
+        }
     }
 }
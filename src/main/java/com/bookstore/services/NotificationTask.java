@@ -0,0 +1,51 @@
+package com.bookstore.services;
+
+/**
+ * Notification of an author that one of their books has new reviews, run on the notification executor.
+ */
+public class NotificationTask {
+    private final String authorEmail;
+    private final String bookTitle;
+    private final int reviewCount;
+    private final long sendDelayMs;
+    private final long queuedAtNanos = System.nanoTime();
+
+    public NotificationTask(String authorEmail, String bookTitle, int reviewCount, long sendDelayMs) {
+        this.authorEmail = authorEmail;
+        this.bookTitle = bookTitle;
+        this.reviewCount = reviewCount;
+        this.sendDelayMs = sendDelayMs;
+    }
+
+    /**
+     * Sends the notification.
+     *
+     * @throws InterruptedException if the executor is shut down while sending
+     */
+    public void send() throws InterruptedException {
+        // Simulate network delay for sending notification
+        Thread.sleep(sendDelayMs);
+        // Log notification delivery simulation
+        System.out.println("Notification sent to " + authorEmail + ": Your book '" + bookTitle + "' "
+            + (reviewCount == 1 ? "has a new review." : "got " + reviewCount + " new reviews."));
+    }
+
+    public String getAuthorEmail() {
+        return authorEmail;
+    }
+
+    public String getBookTitle() {
+        return bookTitle;
+    }
+
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    /**
+     * @return System.nanoTime() when the notification was created, to measure its latency
+     */
+    public long getQueuedAtNanos() {
+        return queuedAtNanos;
+    }
+}
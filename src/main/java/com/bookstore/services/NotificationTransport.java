@@ -0,0 +1,20 @@
+package com.bookstore.services;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends the digests of the notifications claimed from the outbox.
+ * Delivery is at least once: a digest whose outcome is not recorded before its lease ends is sent again.
+ */
+public interface NotificationTransport {
+
+    /**
+     * Sends one digest to an author.
+     *
+     * @param authorEmail Email address of the author to notify.
+     * @param bookTitle Title of the reviewed book.
+     * @param reviewCount Number of new reviews the digest reports.
+     * @return future completed once the digest is sent, or exceptionally if it should be sent again
+     */
+    CompletableFuture<Void> send(String authorEmail, String bookTitle, int reviewCount);
+}
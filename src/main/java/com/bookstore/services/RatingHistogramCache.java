@@ -0,0 +1,138 @@
+package com.bookstore.services;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bookstore.events.BookDeletedEvent;
+import com.bookstore.events.ReviewSavedEvent;
+import com.bookstore.metrics.MetricsSource;
+import com.bookstore.payload.response.RatingHistogramResponse;
+
+/**
+ * Bounded LRU cache of rating histograms, keyed by book ID.
+ *
+ * A histogram is a few counters, so the cache is bounded by its number of
+ * entries. A committed review or deletion drops the histogram of its book,
+ * which is reloaded from the histogram table by the next request; entries
+ * also expire after a TTL, for reviews saved by other instances.
+ */
+@Component
+public class RatingHistogramCache implements MetricsSource {
+
+    // Upper bound for the number of cached histograms
+    @Value("${book.ratings.cache.max-entries:10000}")
+    private int maxEntries;
+
+    // Time a histogram may be served from the cache, 0 disables the cache
+    @Value("${book.ratings.cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    // Entries in access order, guarded by this
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Bumped by every invalidation, so histograms read across one are not cached
+    private long invalidationCount;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Returns the cached histogram of a book, loading and caching it on a miss.
+     *
+     * @param bookId ID of the book
+     * @param loader loads the histogram on a miss, called without holding the lock
+     * @return the rating histogram
+     */
+    public RatingHistogramResponse get(int bookId, IntFunction<RatingHistogramResponse> loader) {
+        long seenInvalidations;
+        synchronized (this) {
+            Entry entry = entries.get(bookId);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hits++;
+                return entry.histogram;
+            }
+            if (entry != null) {
+                entries.remove(bookId);
+            }
+            misses++;
+            seenInvalidations = invalidationCount;
+        }
+
+        RatingHistogramResponse histogram = loader.apply(bookId);
+        if (ttlMs <= 0) {
+            return histogram;
+        }
+
+        synchronized (this) {
+            // A review committed while loading may be missing from the histogram
+            if (seenInvalidations == invalidationCount) {
+                entries.put(bookId, new Entry(histogram, System.currentTimeMillis() + ttlMs));
+                Iterator<Entry> eldest = entries.values().iterator();
+                while (entries.size() > maxEntries && eldest.hasNext()) {
+                    eldest.next();
+                    eldest.remove();
+                    evictions++;
+                }
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Drops the histogram of a reviewed book once the review is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onReviewSaved(ReviewSavedEvent event) {
+        invalidate(event.getBook().getBookId());
+    }
+
+    /**
+     * Drops the histogram of a deleted book once it is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookDeleted(BookDeletedEvent event) {
+        invalidate(event.getBookId());
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "ratings.cache";
+    }
+
+    @Override
+    public synchronized Map<String, Number> getMetrics() {
+        return Map.of(
+            "hits", hits,
+            "misses", misses,
+            "evictions", evictions,
+            "invalidations", invalidations,
+            "size", entries.size());
+    }
+
+    // Caller holds the lock
+    private void invalidate(int bookId) {
+        invalidationCount++;
+        if (entries.remove(bookId) != null) {
+            invalidations++;
+        }
+    }
+
+    // Cached histogram and its expiry time
+    private static final class Entry {
+        private final RatingHistogramResponse histogram;
+        private final long expiresAt;
+
+        private Entry(RatingHistogramResponse histogram, long expiresAt) {
+            this.histogram = histogram;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.bookstore.services;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstore.metrics.MetricsSource;
+import com.bookstore.repository.ReviewKeyView;
+import com.bookstore.repository.ReviewRepository;
+import com.bookstore.utils.BloomFilter;
+
+/**
+ * Bloom filter of the (book, reviewer) pairs that already have a review.
+ *
+ * Most reviews are a reviewer's first review of the book, which the filter
+ * answers without a query; only probable duplicates are confirmed against
+ * the review table. The filter is rebuilt from the table at startup, and
+ * again in the background once more reviews were added than it was sized
+ * for. Until it is built every check goes to the table. The unique
+ * constraint on (book, reviewer) stays the source of truth: a pair added
+ * while the filter is rebuilt may be missed, and is then caught on insert.
+ */
+@Component
+public class ReviewDuplicateFilter implements MetricsSource {
+
+    @Autowired
+    ReviewRepository reviewRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    // Number of reviews the filter is sized for at least, it is sized for twice the table when larger
+    @Value("${review.duplicate-filter.expected-reviews:1000000}")
+    private long expectedReviews;
+
+    // Target rate of first reviews that still need a query to be confirmed
+    @Value("${review.duplicate-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Current filter, null until built
+    private volatile BloomFilter filter;
+
+    // Filter being rebuilt, also receives the pairs added meanwhile
+    private volatile BloomFilter building;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong unfiltered = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    /**
+     * Builds the filter in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleRebuild() {
+        if (rebuilding.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::rebuild, "review-filter-rebuild");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Tells whether a reviewer already reviewed a book, querying the review
+     * table only when the filter cannot rule it out.
+     *
+     * @param bookId           ID of the book
+     * @param reviewerUsername username of the reviewer
+     * @return true if a review of the book by the reviewer exists
+     */
+    public boolean isDuplicate(int bookId, String reviewerUsername) {
+        checks.incrementAndGet();
+        BloomFilter current = filter;
+        if (current == null) {
+            unfiltered.incrementAndGet();
+        } else if (!current.mightContain(key(bookId, reviewerUsername))) {
+            skipped.incrementAndGet();
+            return false;
+        }
+
+        boolean exists = reviewRepository.existsByBook_BookIdAndReviewer_Username(bookId, reviewerUsername);
+        if (exists) {
+            duplicates.incrementAndGet();
+        } else if (current != null) {
+            falsePositives.incrementAndGet();
+        }
+        return exists;
+    }
+
+    /**
+     * @param bookId           ID of the book
+     * @param reviewerUsername username of the reviewer
+     * @return false if the pair definitely has no review, true if it may have one
+     */
+    public boolean mightContain(int bookId, String reviewerUsername) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(key(bookId, reviewerUsername));
+    }
+
+    /**
+     * Records the review of a book by a reviewer, before it is committed: a
+     * review that is rolled back only costs a confirming query later.
+     *
+     * @param bookId           ID of the book
+     * @param reviewerUsername username of the reviewer
+     */
+    public void add(int bookId, String reviewerUsername) {
+        String key = key(bookId, reviewerUsername);
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(key);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(key);
+            if (current.getInsertions() > current.getExpectedInsertions()) {
+                scheduleRebuild(); // beyond its size the false positive rate climbs quickly
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the filter from every review, sized for twice the current table.
+     */
+    void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            long size = Math.max(expectedReviews, 2 * reviewRepository.count());
+            BloomFilter next = new BloomFilter(size, falsePositiveRate);
+            building = next;
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ReviewKeyView> keys = reviewRepository.streamAllKeys()) {
+                    keys.forEach(review -> next.put(key(review.getBookId(), review.getReviewerUsername())));
+                }
+            });
+            filter = next;
+            rebuilds.incrementAndGet();
+            System.out.println("Built duplicate review filter of " + next.getInsertions() + " reviews ("
+                + next.getBitSize() / 8 / 1024 + " KiB) in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (RuntimeException e) {
+            System.err.println("Duplicate review filter rebuild failed: " + e.getMessage());
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "review.duplicate-filter";
+    }
+
+    @Override
+    public Map<String, Number> getMetrics() {
+        BloomFilter current = filter;
+        long negatives = skipped.get() + falsePositives.get();
+        return Map.of(
+            "checks", checks.get(),
+            "skipped-queries", skipped.get(),
+            "unfiltered-checks", unfiltered.get(),
+            "duplicates", duplicates.get(),
+            "false-positives", falsePositives.get(),
+            "measured-false-positive-rate", negatives == 0 ? 0.0 : (double) falsePositives.get() / negatives,
+            "expected-false-positive-rate", current == null ? 0.0 : current.getExpectedFalsePositiveRate(),
+            "reviews", current == null ? 0 : current.getInsertions(),
+            "bits", current == null ? 0 : current.getBitSize(),
+            "rebuilds", rebuilds.get());
+    }
+
+    private static String key(int bookId, String reviewerUsername) {
+        return bookId + ":" + reviewerUsername;
+    }
+}
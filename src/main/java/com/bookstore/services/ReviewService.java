@@ -1,19 +1,60 @@
 package com.bookstore.services;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.bookstore.entity.Book;
+import com.bookstore.entity.BookRatingHistogram;
+import com.bookstore.entity.NotificationOutbox;
 import com.bookstore.entity.Review;
 import com.bookstore.entity.UserEntity;
+import com.bookstore.events.ReviewSavedEvent;
+import com.bookstore.exceptions.BookNotFoundException;
+import com.bookstore.exceptions.DuplicateReviewException;
+import com.bookstore.exceptions.InvalidInputException;
 import com.bookstore.exceptions.ReviewOutOfBoundsException;
+import com.bookstore.exceptions.ReviewQueueFullException;
 import com.bookstore.payload.request.ReviewRequest;
+import com.bookstore.payload.response.BookSummaryResponse;
+import com.bookstore.payload.response.BulkReviewError;
+import com.bookstore.payload.response.BulkReviewResponse;
+import com.bookstore.payload.response.ReviewPageResponse;
+import com.bookstore.payload.response.ReviewResponse;
+import com.bookstore.repository.BookAuthorView;
+import com.bookstore.repository.BookRatingHistogramRepository;
 import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookRevisionView;
+import com.bookstore.repository.NotificationOutboxRepository;
+import com.bookstore.repository.ReviewKeyView;
 import com.bookstore.repository.ReviewRepository;
 import com.bookstore.repository.UserRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
 @Service
 public class ReviewService {
     @Autowired
@@ -26,21 +67,133 @@ public class ReviewService {
     UserRepository userRepository;
     
     @Autowired
-    NotificationService notificationService;
+    BookRatingHistogramRepository ratingHistogramRepository;
+    
+    @Autowired
+    NotificationOutboxRepository outboxRepository;
+    
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    EntityManager entityManager;
+    
+    @Autowired
+    ReviewWriteBuffer reviewWriteBuffer;
+    
+    @Autowired
+    ReviewDuplicateFilter duplicateFilter;
+    
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    
+    // Upper bound for a single page of reviews, shared with the pages of books
+    @Value("${book.page.max-size:100}")
+    private int maxPageSize;
+    
+    // Upper bound for the number of reviews of one bulk request
+    @Value("${review.bulk.max-items:10000}")
+    private int maxBulkItems;
     
-    public void saveReview(ReviewRequest reviewRequest) {
+    // Reviews written per flush during bulk ingestion, one JDBC batch
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
+    
+    // Time the notifications of a book wait for more reviews to join their digest
+    @Value("${notification.digest.window-ms:60000}")
+    private long digestWindowMs;
+    
+    /**
+     * Saves a review and folds its rating into the book's aggregates and rating histogram
+     * in the same transaction.
+     * In write-behind mode the review is queued instead and committed with others in one
+     * transaction; with wait-for-commit durability the caller still waits for that commit.
+     * 
+     * @param reviewRequest DTO containing book ID, reviewer username, rating and comment.
+     * @return true once the review is committed, false if it is queued but not committed yet.
+     * @throws ReviewOutOfBoundsException if the rating is not between 1 and 5.
+     * @throws DuplicateReviewException if the reviewer already reviewed the book.
+     * @throws BookNotFoundException if the book does not exist.
+     * @throws InvalidInputException if the reviewer does not exist.
+     * @throws ReviewQueueFullException if the write-behind queue cannot take the review.
+     */
+    public boolean saveReview(ReviewRequest reviewRequest) {
         // Validate rating range
         if (reviewRequest.getRating() < 1 || reviewRequest.getRating() > 5) {
             throw new ReviewOutOfBoundsException("Rating must be between 1 and 5");
         }
         
+        // Reject repeated reviews before any other lookup; the filter clears most first reviews without a query
+        if (duplicateFilter.isDuplicate(reviewRequest.getBookId(), reviewRequest.getReviewerUsername())) {
+            throw duplicateReview(reviewRequest.getBookId());
+        }
+        
+        if (!reviewWriteBuffer.isEnabled()) {
+            commitReview(reviewRequest);
+            return true;
+        }
+        
+        // Fire-and-forget callers never learn the outcome of the batch, so unknown books and
+        // reviewers are rejected now, as the synchronous path does
+        if (!bookRepository.existsById(reviewRequest.getBookId())) {
+            throw bookNotFound(reviewRequest.getBookId());
+        }
+        if (!userRepository.existsByUsername(reviewRequest.getReviewerUsername())) {
+            throw reviewerNotFound(reviewRequest.getReviewerUsername());
+        }
+        
+        // Queue the review without holding a connection while its batch is committed
+        CompletableFuture<Void> committed = reviewWriteBuffer.submit(reviewRequest);
+        if (!reviewWriteBuffer.isWaitForCommit()) {
+            return false;
+        }
+        try {
+            committed.get(reviewWriteBuffer.getCommitTimeoutMs(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false; // still queued, it will be committed with a later batch
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    /**
+     * Saves one review in its own transaction, bypassing the write-behind buffer.
+     * The buffer falls back to it for the reviews of a batch whose commit failed.
+     * 
+     * @param reviewRequest DTO containing book ID, reviewer username, rating and comment.
+     * @throws DuplicateReviewException if the reviewer already reviewed the book.
+     * @throws BookNotFoundException if the book does not exist.
+     * @throws InvalidInputException if the reviewer does not exist.
+     */
+    public void commitReview(ReviewRequest reviewRequest) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeReview(reviewRequest));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent submission of the same review won the unique constraint
+            if (reviewRepository.existsByBook_BookIdAndReviewer_Username(
+                    reviewRequest.getBookId(), reviewRequest.getReviewerUsername())) {
+                throw duplicateReview(reviewRequest.getBookId());
+            }
+            throw e;
+        }
+    }
+    
+    // Writes one review and its aggregates; the caller holds the transaction
+    private void writeReview(ReviewRequest reviewRequest) {
         // Retrieve the book by ID or throw if not found
         Book book = bookRepository.findById(reviewRequest.getBookId())
-            .orElseThrow(() -> new IllegalArgumentException("Book not found with id: " + reviewRequest.getBookId()));
+            .orElseThrow(() -> bookNotFound(reviewRequest.getBookId()));
         
         // Retrieve the reviewer by username or throw if not found
         UserEntity reviewer = userRepository.findByUsername(reviewRequest.getReviewerUsername())
-            .orElseThrow(() -> new IllegalArgumentException("Reviewer not found with username: " + reviewRequest.getReviewerUsername()));
+            .orElseThrow(() -> reviewerNotFound(reviewRequest.getReviewerUsername()));
         
         // Create new Review entity and set details
         Review review = new Review();
@@ -51,13 +204,248 @@ public class ReviewService {
         
         // Save the review to the database
         reviewRepository.save(review);
+        duplicateFilter.add(book.getBookId(), reviewer.getUsername());
+        
+        // Update the book's average rating, review count and review revision atomically
+        bookRepository.addRating(book.getBookId(), review.getRating(), review.getTimestamp());
+        int[] stars = new int[5];
+        stars[review.getRating() - 1] = 1;
+        addToHistogram(book.getBookId(), stars);
+        
+        // Let listeners (e.g. the leaderboard) react to the new aggregates once committed
+        BookSummaryResponse summary = bookRepository.findSummaryById(book.getBookId()).orElseThrow();
+        eventPublisher.publishEvent(new ReviewSavedEvent(summary, 1, review.getTimestamp()));
         
-        // Trigger asynchronous notification to the author
-        notificationService.notifyAuthor(book.getAuthor().getEmail(), book.getTitle());
+        // Notify the author once the review is committed, through the outbox
+        outboxRepository.save(new NotificationOutbox(book.getBookId(), book.getAuthor().getEmail(), book.getTitle(), 1,
+            review.getTimestamp(), review.getTimestamp().plus(digestWindowMs, ChronoUnit.MILLIS)));
+    }
+    
+    /**
+     * Saves a batch of reviews, typically imported from partner sites, in one transaction.
+     * Books and reviewers are resolved with one query each, reviews are inserted in JDBC
+     * batches and the aggregates of every book are updated once. Invalid reviews, including
+     * repeated reviews of a book by the same reviewer, are reported by position and skipped;
+     * the others are saved.
+     * 
+     * @param reviewRequests Reviews to save, each with book ID, reviewer username, rating and comment.
+     * @return Number of saved reviews and the errors of the rejected ones.
+     * @throws InvalidInputException if the batch is larger than review.bulk.max-items.
+     */
+    @Transactional
+    public BulkReviewResponse saveReviews(List<ReviewRequest> reviewRequests) {
+        if (reviewRequests.size() > maxBulkItems) {
+            throw new InvalidInputException("At most " + maxBulkItems + " reviews can be saved at once");
+        }
+        
+        // Resolve every referenced book and reviewer with one query each
+        Set<Integer> bookIds = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        for (ReviewRequest request : reviewRequests) {
+            if (request != null && request.getBookId() != null) {
+                bookIds.add(request.getBookId());
+            }
+            if (request != null && request.getReviewerUsername() != null) {
+                usernames.add(request.getReviewerUsername());
+            }
+        }
+        Map<Integer, BookAuthorView> books = new HashMap<>();
+        if (!bookIds.isEmpty()) {
+            bookRepository.findAuthorsByIdIn(bookIds).forEach(book -> books.put(book.getBookId(), book));
+        }
+        Map<String, Long> reviewerIds = new HashMap<>();
+        if (!usernames.isEmpty()) {
+            userRepository.findIdsByUsernameIn(usernames).forEach(user -> reviewerIds.put(user.getUsername(), user.getUserId()));
+        }
+        
+        // Confirm the pairs the duplicate filter cannot rule out with one query
+        Set<String> reviewed = new HashSet<>();
+        Set<Integer> probableBookIds = new HashSet<>();
+        Set<String> probableUsernames = new HashSet<>();
+        for (ReviewRequest request : reviewRequests) {
+            if (request != null && request.getBookId() != null && request.getReviewerUsername() != null
+                    && duplicateFilter.mightContain(request.getBookId(), request.getReviewerUsername())) {
+                probableBookIds.add(request.getBookId());
+                probableUsernames.add(request.getReviewerUsername());
+            }
+        }
+        if (!probableBookIds.isEmpty()) {
+            for (ReviewKeyView key : reviewRepository.findKeysByBookIdInAndUsernameIn(probableBookIds, probableUsernames)) {
+                reviewed.add(reviewKey(key.getBookId(), key.getReviewerUsername()));
+            }
+        }
+        
+        // Insert the valid reviews; references avoid loading books and reviewers
+        LocalDateTime now = LocalDateTime.now();
+        List<BulkReviewError> errors = new ArrayList<>();
+        List<ReviewRequest> saved = new ArrayList<>();
+        Map<Integer, int[]> starsByBook = new LinkedHashMap<>(); // book ID -> number of reviews per rating
+        for (int i = 0; i < reviewRequests.size(); i++) {
+            ReviewRequest request = reviewRequests.get(i);
+            BulkReviewError error = validate(i, request, books, reviewerIds);
+            if (error == null && !reviewed.add(reviewKey(request.getBookId(), request.getReviewerUsername()))) {
+                error = new BulkReviewError(i, BulkReviewError.Type.DUPLICATE, "Reviewer " + request.getReviewerUsername()
+                    + " already reviewed the book with id: " + request.getBookId());
+            }
+            if (error != null) {
+                errors.add(error);
+                continue;
+            }
+            
+            Review review = new Review();
+            review.setBook(entityManager.getReference(Book.class, request.getBookId()));
+            review.setReviewer(entityManager.getReference(UserEntity.class, reviewerIds.get(request.getReviewerUsername())));
+            review.setRating(request.getRating());
+            review.setComment(request.getComment());
+            review.setTimestamp(now);
+            entityManager.persist(review);
+            duplicateFilter.add(request.getBookId(), request.getReviewerUsername());
+            
+            saved.add(request);
+            starsByBook.computeIfAbsent(request.getBookId(), id -> new int[5])[request.getRating() - 1]++;
+            
+            // Send one full batch and keep the persistence context small
+            if (saved.size() % jdbcBatchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        
+        // Update the aggregates, review revision and histogram of every reviewed book once, and notify its author
+        for (Map.Entry<Integer, int[]> entry : starsByBook.entrySet()) {
+            int count = 0;
+            long ratingSum = 0;
+            for (int star = 1; star <= 5; star++) {
+                count += entry.getValue()[star - 1];
+                ratingSum += (long) star * entry.getValue()[star - 1];
+            }
+            bookRepository.addRatings(entry.getKey(), count, ratingSum, now);
+            addToHistogram(entry.getKey(), entry.getValue());
+            
+            // One notification per reviewed book rather than per review
+            BookAuthorView book = books.get(entry.getKey());
+            outboxRepository.save(new NotificationOutbox(entry.getKey(), book.getAuthorEmail(), book.getTitle(), count,
+                now, now.plus(digestWindowMs, ChronoUnit.MILLIS)));
+        }
+        
+        // Let listeners react once per reviewed book once committed, with its final aggregates
+        if (!starsByBook.isEmpty()) {
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (ReviewRequest request : saved) {
+                counts.merge(request.getBookId(), 1, Integer::sum);
+            }
+            for (BookSummaryResponse summary : bookRepository.findSummariesByIdIn(starsByBook.keySet())) {
+                eventPublisher.publishEvent(new ReviewSavedEvent(summary, counts.get(summary.getBookId()), now));
+            }
+        }
+        
+        return new BulkReviewResponse(saved.size(), errors);
+    }
+    
+    // Adds review counts to the histogram of a book, creating its row on the first review.
+    // The caller updated the book row first, whose lock serializes concurrent first reviews.
+    private void addToHistogram(Integer bookId, int[] stars) {
+        if (ratingHistogramRepository.addCounts(bookId, stars[0], stars[1], stars[2], stars[3], stars[4]) == 0) {
+            ratingHistogramRepository.save(new BookRatingHistogram(entityManager.getReference(Book.class, bookId), stars));
+        }
+    }
+    
+    private static String reviewKey(Integer bookId, String reviewerUsername) {
+        return bookId + ":" + reviewerUsername;
+    }
+    
+    private static DuplicateReviewException duplicateReview(int bookId) {
+        return new DuplicateReviewException("You have already reviewed the book with id: " + bookId);
+    }
+
+    private static BookNotFoundException bookNotFound(int bookId) {
+        return new BookNotFoundException("Book not found with id: " + bookId);
+    }
+
+    private static InvalidInputException reviewerNotFound(String username) {
+        return new InvalidInputException("Reviewer not found with username: " + username);
+    }
+    
+    // Reason a bulk review cannot be saved, or null if it is valid
+    private static BulkReviewError validate(int index, ReviewRequest request, Map<Integer, BookAuthorView> books,
+                                            Map<String, Long> reviewerIds) {
+        if (request == null) {
+            return new BulkReviewError(index, BulkReviewError.Type.INVALID, "Review is missing");
+        }
+        if (request.getRating() == null || request.getRating() < 1 || request.getRating() > 5) {
+            return new BulkReviewError(index, BulkReviewError.Type.INVALID, "Rating must be between 1 and 5");
+        }
+        if (request.getComment() == null || request.getComment().trim().isEmpty()) {
+            return new BulkReviewError(index, BulkReviewError.Type.INVALID, "Comment is mandatory");
+        }
+        if (request.getBookId() == null || !books.containsKey(request.getBookId())) {
+            return new BulkReviewError(index, BulkReviewError.Type.NOT_FOUND, "Book not found with id: " + request.getBookId());
+        }
+        if (request.getReviewerUsername() == null || !reviewerIds.containsKey(request.getReviewerUsername())) {
+            return new BulkReviewError(index, BulkReviewError.Type.NOT_FOUND,
+                "Reviewer not found with username: " + request.getReviewerUsername());
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the review revision of a book, read without loading the book or its reviews.
+     * 
+     * @param bookId ID of the book.
+     * @return revision and last modification time, empty if the book does not exist.
+     */
+    public Optional<BookRevisionView> getReviewsRevision(int bookId) {
+        return bookRepository.findRevisionById(bookId);
     }
     
     // Retrieve all reviews for a given book, ordered by most recent first
     public List<Review> getReviewsOf(int bookId) {
         return reviewRepository.findByBook_BookIdOrderByTimestampDesc(bookId);
     }
+    
+    /**
+     * Retrieves one keyset page of the reviews of a book, most recent first.
+     * The position is the (timestamp, reviewId) of the last review of the previous
+     * page, so every page is a single index range scan however deep it is.
+     * 
+     * @param bookId ID of the book.
+     * @param after Cursor returned with the previous page, or null for the first page.
+     * @param size Number of reviews to retrieve (1 to book.page.max-size).
+     * @return Page of reviews with the cursor of the next page.
+     * @throws InvalidInputException if size is out of range or the cursor is malformed.
+     */
+    public ReviewPageResponse getReviewsAfter(int bookId, String after, int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new InvalidInputException("Page size must be between 1 and " + maxPageSize);
+        }
+        
+        PageRequest page = PageRequest.of(0, size);
+        Slice<ReviewResponse> slice;
+        if (after == null) {
+            slice = reviewRepository.findFirstPage(bookId, page);
+        } else {
+            LocalDateTime timestamp;
+            Integer reviewId;
+            try {
+                String position = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+                int separator = position.lastIndexOf('|');
+                timestamp = LocalDateTime.parse(position.substring(0, separator));
+                reviewId = Integer.valueOf(position.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new InvalidInputException("Invalid cursor: " + after);
+            }
+            slice = reviewRepository.findPageAfter(bookId, timestamp, reviewId, page);
+        }
+        
+        List<ReviewResponse> reviews = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !reviews.isEmpty()) {
+            ReviewResponse last = reviews.get(reviews.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (last.getTimestamp() + "|" + last.getReviewId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new ReviewPageResponse(reviews, nextCursor);
+    }
 }
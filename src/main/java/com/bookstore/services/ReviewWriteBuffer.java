@@ -0,0 +1,289 @@
+package com.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.bookstore.exceptions.DuplicateReviewException;
+import com.bookstore.exceptions.ReviewQueueFullException;
+import com.bookstore.metrics.MetricsSource;
+import com.bookstore.payload.request.ReviewRequest;
+import com.bookstore.payload.response.BulkReviewError;
+import com.bookstore.payload.response.BulkReviewResponse;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Write-behind buffer of reviews with group commit.
+ *
+ * When enabled, validated reviews are queued in a bounded in-memory queue and
+ * a single committer thread writes them in batches through the bulk path: a
+ * batch is committed once it holds max-batch reviews or its first review has
+ * waited flush-interval-ms, so a storm of reviews costs one transaction per
+ * batch instead of one per review. Each caller gets a future completed when
+ * its batch commits, or failed with the reason its review was rejected. A
+ * full queue rejects new reviews instead of blocking request threads, and a
+ * review already waiting in the queue is rejected as a duplicate right away,
+ * even in fire-and-forget mode. If a batch cannot be committed as a whole,
+ * e.g. because a concurrent import saved one of its reviews first, its
+ * reviews are committed one by one so only the conflicting ones fail.
+ * Once shutdown starts new reviews are rejected and the queued ones are
+ * committed; a crash loses them, which is the price of the fire-and-forget mode.
+ */
+@Component
+public class ReviewWriteBuffer implements MetricsSource {
+
+    // Saves the batches; lazy because ReviewService submits to this buffer
+    @Lazy
+    @Autowired
+    ReviewService reviewService;
+
+    // Queue reviews and commit them in batches instead of one transaction per review
+    @Value("${review.write-behind.enabled:false}")
+    private boolean enabled;
+
+    // Maximum number of queued reviews, further reviews are rejected
+    @Value("${review.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    // Maximum number of reviews committed in one transaction
+    @Value("${review.write-behind.max-batch:200}")
+    private int maxBatch;
+
+    // Maximum time the first review of a batch waits for others
+    @Value("${review.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    // Whether callers wait for their batch to commit ("wait") or return once queued ("fire-and-forget")
+    @Value("${review.write-behind.durability:wait}")
+    private String durability;
+
+    // Maximum time a caller waits for its batch in "wait" mode, the review stays queued after that
+    @Value("${review.write-behind.commit-timeout-ms:5000}")
+    private long commitTimeoutMs;
+
+    private BlockingQueue<PendingReview> queue;
+
+    // Book and reviewer of the queued reviews, to reject a repeated submission before it is queued
+    private final Set<String> queuedKeys = ConcurrentHashMap.newKeySet();
+    private Thread committer;
+    private volatile boolean running;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong splitBatches = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        committer = new Thread(this::run, "review-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Stops accepting reviews and commits the ones still queued, when the context
+     * starts closing and the database is still available.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void stop() throws InterruptedException {
+        if (committer == null) {
+            return;
+        }
+        running = false;
+        committer.join(TimeUnit.SECONDS.toMillis(30));
+
+        // Reviews offered while the committer was finishing are refused rather than lost silently
+        List<PendingReview> late = new ArrayList<>();
+        queue.drainTo(late);
+        late.forEach(pending -> pending.result.completeExceptionally(
+            new ReviewQueueFullException("The application is shutting down, please retry later")));
+    }
+
+    /**
+     * @return true when reviews are written behind rather than committed by the caller
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return true when callers wait for their batch to commit
+     */
+    public boolean isWaitForCommit() {
+        return !"fire-and-forget".equalsIgnoreCase(durability);
+    }
+
+    /**
+     * @return maximum time a caller waits for its batch, in milliseconds
+     */
+    public long getCommitTimeoutMs() {
+        return commitTimeoutMs;
+    }
+
+    /**
+     * Queues a validated review for the next batch.
+     *
+     * @param request review to save
+     * @return future completed once the batch holding the review commits
+     * @throws DuplicateReviewException if the same reviewer's review of the book is already queued
+     * @throws ReviewQueueFullException if the queue is full or shutting down
+     */
+    public CompletableFuture<Void> submit(ReviewRequest request) {
+        String key = request.getBookId() + ":" + request.getReviewerUsername();
+        if (!queuedKeys.add(key)) {
+            throw new DuplicateReviewException("You have already reviewed the book with id: " + request.getBookId());
+        }
+        PendingReview pending = new PendingReview(request);
+        if (!running || !queue.offer(pending)) {
+            queuedKeys.remove(key);
+            rejected.incrementAndGet();
+            throw new ReviewQueueFullException("Too many reviews are waiting to be saved, please retry later");
+        }
+        // Once committed, the review is found by the duplicate check of ReviewService instead
+        pending.result.whenComplete((result, error) -> queuedKeys.remove(key));
+        submitted.incrementAndGet();
+        return pending.result;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "review.write-behind";
+    }
+
+    @Override
+    public Map<String, Number> getMetrics() {
+        long batchCount = batches.get();
+        return Map.of(
+            "queued", queue == null ? 0 : queue.size(),
+            "submitted", submitted.get(),
+            "rejected", rejected.get(),
+            "committed", committed.get(),
+            "failed", failed.get(),
+            "batches", batchCount,
+            "split-batches", splitBatches.get(),
+            "average-batch-size", batchCount == 0 ? 0.0 : (double) (committed.get() + failed.get()) / batchCount);
+    }
+
+    // Committer loop; drains the queue completely once stopped
+    private void run() {
+        List<PendingReview> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingReview first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Fill the batch until it is full or the first review has waited long enough
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < maxBatch && running) {
+                    queue.drainTo(batch, maxBatch - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatch || remaining <= 0) {
+                        break;
+                    }
+                    PendingReview next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                queue.drainTo(batch, maxBatch - batch.size());
+
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingReview> batch) {
+        List<ReviewRequest> requests = new ArrayList<>(batch.size());
+        for (PendingReview pending : batch) {
+            requests.add(pending.request);
+        }
+        batches.incrementAndGet();
+
+        BulkReviewResponse response;
+        try {
+            response = reviewService.saveReviews(requests);
+        } catch (RuntimeException e) {
+            // One conflicting review must not fail the callers of the whole batch
+            System.err.println("Review batch of " + batch.size() + " failed, committing its reviews one by one: "
+                + e.getMessage());
+            splitBatches.incrementAndGet();
+            batch.forEach(this::commitAlone);
+            return;
+        }
+
+        boolean[] rejectedInBatch = new boolean[batch.size()];
+        for (BulkReviewError error : response.getErrors()) {
+            rejectedInBatch[error.getIndex()] = true;
+            reject(batch.get(error.getIndex()), error.getType() == BulkReviewError.Type.DUPLICATE
+                ? new DuplicateReviewException(error.getMessage())
+                : new IllegalArgumentException(error.getMessage()));
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (!rejectedInBatch[i]) {
+                batch.get(i).result.complete(null);
+            }
+        }
+        committed.addAndGet(response.getSaved());
+        failed.addAndGet(response.getErrors().size());
+    }
+
+    private void commitAlone(PendingReview pending) {
+        try {
+            reviewService.commitReview(pending.request);
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            reject(pending, e);
+            return;
+        }
+        committed.incrementAndGet();
+        pending.result.complete(null);
+    }
+
+    private void reject(PendingReview pending, RuntimeException reason) {
+        pending.result.completeExceptionally(reason);
+        if (!isWaitForCommit()) {
+            System.err.println("Queued review was rejected: " + reason.getMessage());
+        }
+    }
+
+    // Queued review and the future of its caller
+    private static final class PendingReview {
+        private final ReviewRequest request;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        private PendingReview(ReviewRequest request) {
+            this.request = request;
+        }
+    }
+}
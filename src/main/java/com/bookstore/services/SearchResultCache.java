@@ -0,0 +1,269 @@
+package com.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bookstore.events.BookDeletedEvent;
+import com.bookstore.events.BookSavedEvent;
+import com.bookstore.events.ReviewSavedEvent;
+import com.bookstore.metrics.MetricsSource;
+import com.bookstore.payload.response.BookSummaryResponse;
+
+/**
+ * Bounded LRU cache of title search responses, keyed by normalized keyword.
+ *
+ * Entries expire after a TTL and the least recently used ones are evicted
+ * once the estimated size of all cached responses exceeds the configured
+ * budget. Committed changes only drop the entries they can affect: a saved
+ * book invalidates the keywords its title contains, a saved, deleted or
+ * reviewed book invalidates the responses listing it, found through an
+ * index from book ID to keys. A response loaded while a change commits is
+ * only left out of the cache if the change can affect it, so review traffic
+ * on some books does not keep every other search uncached.
+ */
+@Component
+public class SearchResultCache implements MetricsSource {
+
+    // Estimated fixed cost of an entry and a book, on top of their strings
+    private static final long ENTRY_OVERHEAD = 200;
+    private static final long BOOK_OVERHEAD = 100;
+
+    // Upper bound for the estimated size of all cached responses
+    @Value("${book.search.cache.max-weight-bytes:16777216}")
+    private long maxWeight;
+
+    // Time a response may be served from the cache, 0 disables the cache
+    @Value("${book.search.cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    // Entries in access order, guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    // Keys of the cached responses listing each book, guarded by this
+    private final Map<Integer, Set<String>> keysByBook = new HashMap<>();
+
+    // Responses being loaded, told about the changes committed meanwhile, guarded by this
+    private final Set<Load> loads = new HashSet<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    /**
+     * Returns the cached response for a keyword, computing and caching it on a miss.
+     *
+     * @param keyword search keyword
+     * @param loader  computes the response on a miss, called without holding the lock
+     * @return the search response
+     */
+    public List<BookSummaryResponse> get(String keyword, Supplier<List<BookSummaryResponse>> loader) {
+        String key = TitleSearchIndex.normalize(keyword);
+        Load load = null;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hits++;
+                return entry.books;
+            }
+            if (entry != null) {
+                remove(key);
+                expirations++;
+            }
+            misses++;
+            if (ttlMs > 0) {
+                load = new Load(key);
+                loads.add(load);
+            }
+        }
+
+        List<BookSummaryResponse> books;
+        try {
+            books = List.copyOf(loader.get());
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                loads.remove(load);
+            }
+            throw e;
+        }
+        if (load == null) {
+            return books;
+        }
+
+        Entry entry = new Entry(books, System.currentTimeMillis() + ttlMs);
+        synchronized (this) {
+            loads.remove(load);
+            // A change committed while loading may be missing from the result
+            if (!load.mayHaveMissed(entry) && entry.weight <= maxWeight) {
+                put(key, entry);
+                evictIfOverweight();
+            }
+        }
+        return books;
+    }
+
+    /**
+     * Drops the keywords the title of a saved book matches, and the responses
+     * listing it under its previous title, once it is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookSaved(BookSavedEvent event) {
+        String title = TitleSearchIndex.normalize(event.getBook().getTitle());
+        for (Load load : loads) {
+            load.keyMatched |= title.contains(load.key);
+        }
+        List<String> matching = new ArrayList<>();
+        for (String key : entries.keySet()) {
+            if (title.contains(key)) {
+                matching.add(key);
+            }
+        }
+        matching.forEach(this::invalidate);
+        bookChanged(event.getBook().getBookId());
+    }
+
+    /**
+     * Drops the responses listing a deleted book once it is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookDeleted(BookDeletedEvent event) {
+        bookChanged(event.getBookId());
+    }
+
+    /**
+     * Drops the responses listing a reviewed book, whose rating aggregates they embed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onReviewSaved(ReviewSavedEvent event) {
+        bookChanged(event.getBook().getBookId());
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "search.cache";
+    }
+
+    @Override
+    public synchronized Map<String, Number> getMetrics() {
+        return Map.of(
+            "hits", hits,
+            "misses", misses,
+            "evictions", evictions,
+            "expirations", expirations,
+            "invalidations", invalidations,
+            "size", entries.size(),
+            "weight-bytes", weight);
+    }
+
+    // Caller holds the lock; drops the responses listing a book and flags the loads that may list it
+    private void bookChanged(int bookId) {
+        for (Load load : loads) {
+            load.changedBookIds.add(bookId);
+        }
+        Set<String> keys = keysByBook.get(bookId);
+        if (keys != null) {
+            List.copyOf(keys).forEach(this::invalidate);
+        }
+    }
+
+    // Caller holds the lock
+    private void invalidate(String key) {
+        if (remove(key) != null) {
+            invalidations++;
+        }
+    }
+
+    // Caller holds the lock
+    private void evictIfOverweight() {
+        while (weight > maxWeight && !entries.isEmpty()) {
+            remove(entries.keySet().iterator().next());
+            evictions++;
+        }
+    }
+
+    // Caller holds the lock
+    private void put(String key, Entry entry) {
+        remove(key);
+        entries.put(key, entry);
+        weight += entry.weight;
+        for (Integer bookId : entry.bookIds) {
+            keysByBook.computeIfAbsent(bookId, id -> new HashSet<>()).add(key);
+        }
+    }
+
+    // Caller holds the lock
+    private Entry remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        weight -= entry.weight;
+        for (Integer bookId : entry.bookIds) {
+            Set<String> keys = keysByBook.get(bookId);
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByBook.remove(bookId);
+            }
+        }
+        return entry;
+    }
+
+    // Cached response with the IDs it lists and its estimated size in bytes
+    private static final class Entry {
+        private final List<BookSummaryResponse> books;
+        private final Set<Integer> bookIds = new HashSet<>();
+        private final long expiresAt;
+        private final long weight;
+
+        private Entry(List<BookSummaryResponse> books, long expiresAt) {
+            this.books = books;
+            this.expiresAt = expiresAt;
+
+            long estimate = ENTRY_OVERHEAD;
+            for (BookSummaryResponse book : books) {
+                bookIds.add(book.getBookId());
+                estimate += BOOK_OVERHEAD + chars(book.getTitle()) + chars(book.getAuthorUsername());
+            }
+            this.weight = estimate;
+        }
+
+        private static long chars(String text) {
+            return text == null ? 0 : 2L * text.length();
+        }
+    }
+
+    // Response being loaded and the changes committed since the load started, guarded by the cache lock
+    private static final class Load {
+        private final String key;
+        private final Set<Integer> changedBookIds = new HashSet<>();
+        private boolean keyMatched;
+
+        private Load(String key) {
+            this.key = key;
+        }
+
+        private boolean mayHaveMissed(Entry entry) {
+            if (keyMatched) {
+                return true;
+            }
+            for (Integer bookId : changedBookIds) {
+                if (entry.bookIds.contains(bookId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
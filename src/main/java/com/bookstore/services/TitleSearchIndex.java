@@ -0,0 +1,295 @@
+package com.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bookstore.events.BookDeletedEvent;
+import com.bookstore.events.BookSavedEvent;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookTitleView;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * In-process inverted index over book titles.
+ *
+ * Every keyword matches the titles containing it, the semantics of the
+ * {@code LOWER(title) LIKE %keyword%} query used while the index is not ready,
+ * so a search finds the same books before and after startup; only the order
+ * differs, as the query returns them by book ID. Keywords of three or more
+ * characters are looked up through a trigram index: only the books listed
+ * under the rarest trigram of the keyword are checked for the full substring.
+ * Shorter keywords have no trigram and scan all held titles. Postings are
+ * sorted int arrays, so the index costs a few bytes per trigram occurrence.
+ */
+@Component
+public class TitleSearchIndex {
+
+    private static final int GRAM = 3;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Normalized title of every indexed book, guarded by lock
+    private final Map<Integer, String> titles = new HashMap<>();
+
+    // Trigram -> books whose normalized title contains it, guarded by lock
+    private final Map<String, Postings> trigrams = new HashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * @return true once the index has been built from the database
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Rebuilds the index from all book titles once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            titles.clear();
+            trigrams.clear();
+            try (Stream<BookTitleView> rows = bookRepository.streamAllTitles()) {
+                rows.forEach(row -> add(row.getBookId(), row.getTitle()));
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a saved book once its transaction is committed, before the
+     * search result cache drops the responses it changes.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onBookSaved(BookSavedEvent event) {
+        put(event.getBook().getBookId(), event.getBook().getTitle());
+    }
+
+    /**
+     * Removes a deleted book once its transaction is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onBookDeleted(BookDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.getBookId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces the title of a book.
+     *
+     * @param bookId ID of the book
+     * @param title  title of the book
+     */
+    public void put(int bookId, String title) {
+        lock.writeLock().lock();
+        try {
+            remove(bookId);
+            add(bookId, title);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the books whose title matches the keyword, best matches first.
+     * Whole-title matches rank first, then titles starting with the keyword,
+     * then titles with a word equal to or starting with it; ties go to the
+     * shorter title, then the lower book ID.
+     *
+     * @param keyword    search keyword (case-insensitive)
+     * @param maxResults maximum number of book IDs returned
+     * @return ranked list of matching book IDs
+     */
+    public List<Integer> search(String keyword, int maxResults) {
+        String query = normalize(keyword);
+        if (query.isEmpty() || maxResults < 1) {
+            return new ArrayList<>();
+        }
+
+        // Worst match on top, so it is the one evicted when the queue overflows
+        Comparator<Match> best = Comparator.comparingInt((Match m) -> -m.score)
+            .thenComparingInt(m -> m.title.length())
+            .thenComparingInt(m -> m.bookId);
+        PriorityQueue<Match> top = new PriorityQueue<>(best.reversed());
+
+        lock.readLock().lock();
+        try {
+            for (int bookId : candidates(query)) {
+                String title = titles.get(bookId);
+                if (title == null || !title.contains(query)) {
+                    continue;
+                }
+                top.add(new Match(bookId, title, score(query, title)));
+                if (top.size() > maxResults) {
+                    top.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Match> ranked = new ArrayList<>(top);
+        ranked.sort(best);
+        List<Integer> bookIds = new ArrayList<>(ranked.size());
+        for (Match match : ranked) {
+            bookIds.add(match.bookId);
+        }
+        return bookIds;
+    }
+
+    /**
+     * Lower-cases a title or keyword and collapses runs of whitespace.
+     *
+     * @param text raw text
+     * @return normalized text, empty if the input is null or blank
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase();
+    }
+
+    // Candidate books for a normalized query, a superset of the real matches
+    private int[] candidates(String query) {
+        if (query.length() < GRAM) {
+            // No trigram to narrow down a short keyword, every title is checked
+            return titles.keySet().stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        Postings rarest = null;
+        for (String gram : grams(query)) {
+            Postings postings = trigrams.get(gram);
+            if (postings == null) {
+                return new int[0];
+            }
+            if (rarest == null || postings.size < rarest.size) {
+                rarest = postings;
+            }
+        }
+        return Arrays.copyOf(rarest.ids, rarest.size);
+    }
+
+    private int score(String query, String title) {
+        if (title.equals(query)) {
+            return 4;
+        }
+        if (title.startsWith(query)) {
+            return 3;
+        }
+        for (String token : title.split(" ")) {
+            if (token.equals(query)) {
+                return 2;
+            }
+        }
+        return (" " + title).contains(" " + query) ? 1 : 0;
+    }
+
+    // Callers hold the write lock
+    private void add(int bookId, String rawTitle) {
+        String title = normalize(rawTitle);
+        titles.put(bookId, title);
+        for (String gram : grams(title)) {
+            trigrams.computeIfAbsent(gram, key -> new Postings()).add(bookId);
+        }
+    }
+
+    // Callers hold the write lock
+    private void remove(int bookId) {
+        String title = titles.remove(bookId);
+        if (title == null) {
+            return;
+        }
+        for (String gram : grams(title)) {
+            Postings postings = trigrams.get(gram);
+            if (postings != null && postings.remove(bookId) && postings.size == 0) {
+                trigrams.remove(gram);
+            }
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    // A book candidate with its relevance score
+    private static final class Match {
+        private final int bookId;
+        private final String title;
+        private final int score;
+
+        private Match(int bookId, String title, int score) {
+            this.bookId = bookId;
+            this.title = title;
+            this.score = score;
+        }
+    }
+
+    // Sorted, duplicate-free list of book IDs backed by a growable int array
+    private static final class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        private void add(int bookId) {
+            int at = Arrays.binarySearch(ids, 0, size, bookId);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = bookId;
+            size++;
+        }
+
+        private boolean remove(int bookId) {
+            int at = Arrays.binarySearch(ids, 0, size, bookId);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+}
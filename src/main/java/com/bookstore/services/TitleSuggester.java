@@ -0,0 +1,326 @@
+package com.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bookstore.events.BookDeletedEvent;
+import com.bookstore.events.BookSavedEvent;
+import com.bookstore.events.ReviewSavedEvent;
+import com.bookstore.payload.response.BookSummaryResponse;
+import com.bookstore.repository.BookRepository;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Title autocomplete backed by a compressed prefix trie (radix tree).
+ *
+ * Every edge carries a run of characters, so the trie has at most about two
+ * nodes per title. Each node stores the IDs of the best-rated books below it,
+ * in {@link TopBooksLeaderboard#RANKING} order, which turns a suggestion into
+ * a walk down the prefix followed by an array copy. The trie is built from the
+ * database once and then kept current by committed book and review events.
+ */
+@Component
+public class TitleSuggester {
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final int[] NO_IDS = new int[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    @Autowired
+    BookRepository bookRepository;
+
+    // Number of best-rated books kept at every node, the maximum suggestions per prefix
+    @Value("${book.suggest.top-n:10}")
+    private int topN;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Trie root, its label is empty, guarded by lock
+    private Node root = new Node(NO_CHARS);
+
+    // Summary of every indexed book, the source of the ranking, guarded by lock
+    private final Map<Integer, BookSummaryResponse> books = new HashMap<>();
+
+    private final Comparator<Integer> byRank = (a, b) -> TopBooksLeaderboard.RANKING.compare(books.get(a), books.get(b));
+
+    /**
+     * Builds the trie from all books once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            root = new Node(NO_CHARS);
+            books.clear();
+            try (Stream<BookSummaryResponse> rows = bookRepository.streamAllSummaries()) {
+                rows.forEach(this::add);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a saved book once its transaction is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookSaved(BookSavedEvent event) {
+        put(event.getBook());
+    }
+
+    /**
+     * Re-ranks a reviewed book once the review is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewSaved(ReviewSavedEvent event) {
+        put(event.getBook());
+    }
+
+    /**
+     * Removes a deleted book once its transaction is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookDeleted(BookDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.getBookId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a book, or applies its new title and rating aggregates.
+     *
+     * @param book summary of the book
+     */
+    public void put(BookSummaryResponse book) {
+        lock.writeLock().lock();
+        try {
+            BookSummaryResponse current = books.get(book.getBookId());
+            if (current != null && current.getReviewCount() > book.getReviewCount()) {
+                return; // an older event delivered late
+            }
+            remove(book.getBookId());
+            add(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best-rated books whose title starts with the prefix.
+     *
+     * @param prefix start of the title (case-insensitive)
+     * @param limit  maximum number of suggestions, at most book.suggest.top-n
+     * @return suggested books, best rated first
+     */
+    public List<BookSummaryResponse> suggest(String prefix, int limit) {
+        String key = TitleSearchIndex.normalize(prefix);
+        List<BookSummaryResponse> suggestions = new ArrayList<>();
+        if (key.isEmpty()) {
+            return suggestions;
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            if (node != null) {
+                for (int i = 0; i < Math.min(limit, node.top.length); i++) {
+                    suggestions.add(books.get(node.top[i]));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+
+    // Node whose subtree holds exactly the titles starting with the key, null if none
+    private Node find(String key) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                return null;
+            }
+            for (int j = 0; j < child.label.length && i < key.length(); j++, i++) {
+                if (child.label[j] != key.charAt(i)) {
+                    return null;
+                }
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    // Callers hold the write lock and have removed any previous version of the book
+    private void add(BookSummaryResponse book) {
+        books.put(book.getBookId(), book);
+        String key = TitleSearchIndex.normalize(book.getTitle());
+
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i).toCharArray());
+                node.addChild(child);
+                i = key.length();
+            } else {
+                int common = 0;
+                while (common < child.label.length && i + common < key.length()
+                        && child.label[common] == key.charAt(i + common)) {
+                    common++;
+                }
+                if (common < child.label.length) {
+                    child = split(node, child, common);
+                }
+                i += common;
+            }
+            node = child;
+            path.add(node);
+        }
+
+        node.terminal = Arrays.copyOf(node.terminal, node.terminal.length + 1);
+        node.terminal[node.terminal.length - 1] = book.getBookId();
+        for (int p = path.size() - 1; p >= 0; p--) {
+            recompute(path.get(p));
+        }
+    }
+
+    // Callers hold the write lock
+    private void remove(int bookId) {
+        BookSummaryResponse book = books.get(bookId);
+        if (book == null) {
+            return;
+        }
+        String key = TitleSearchIndex.normalize(book.getTitle());
+
+        // Titles are stored verbatim, so the walk ends exactly at the end of a label
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            node = node.child(key.charAt(i));
+            i += node.label.length;
+            path.add(node);
+        }
+        node.terminal = Arrays.stream(node.terminal).filter(id -> id != bookId).toArray();
+        books.remove(bookId);
+
+        // Drop emptied leaves and fold single-child nodes back into their child
+        for (int p = path.size() - 1; p > 0; p--) {
+            Node current = path.get(p);
+            Node parent = path.get(p - 1);
+            if (current.terminal.length == 0 && current.children.length == 0) {
+                parent.removeChild(current);
+                path.remove(p);
+            } else if (current.terminal.length == 0 && current.children.length == 1) {
+                Node only = current.children[0];
+                char[] label = Arrays.copyOf(current.label, current.label.length + only.label.length);
+                System.arraycopy(only.label, 0, label, current.label.length, only.label.length);
+                only.label = label;
+                parent.replaceChild(current, only);
+                path.set(p, only);
+            }
+        }
+        for (int p = path.size() - 1; p >= 0; p--) {
+            recompute(path.get(p));
+        }
+    }
+
+    // Inserts a node holding the first common characters of child's label above it
+    private Node split(Node parent, Node child, int common) {
+        Node middle = new Node(Arrays.copyOf(child.label, common));
+        parent.replaceChild(child, middle);
+        child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+        middle.addChild(child);
+        middle.top = child.top;
+        return middle;
+    }
+
+    // Rebuilds the top IDs of a node from its own books and the tops of its children
+    private void recompute(Node node) {
+        List<Integer> candidates = new ArrayList<>();
+        for (int id : node.terminal) {
+            candidates.add(id);
+        }
+        for (Node child : node.children) {
+            for (int id : child.top) {
+                candidates.add(id);
+            }
+        }
+        candidates.sort(byRank);
+        node.top = candidates.stream().limit(topN).mapToInt(Integer::intValue).toArray();
+    }
+
+    // Trie node; children are kept sorted by the first character of their label
+    private static final class Node {
+        private char[] label;
+        private char[] firstChars = NO_CHARS;
+        private Node[] children = NO_NODES;
+        private int[] terminal = NO_IDS;
+        private int[] top = NO_IDS;
+
+        private Node(char[] label) {
+            this.label = label;
+        }
+
+        private Node child(char first) {
+            int at = Arrays.binarySearch(firstChars, first);
+            return at >= 0 ? children[at] : null;
+        }
+
+        private void addChild(Node child) {
+            int at = -Arrays.binarySearch(firstChars, child.label[0]) - 1;
+            char[] chars = new char[firstChars.length + 1];
+            Node[] nodes = new Node[children.length + 1];
+            System.arraycopy(firstChars, 0, chars, 0, at);
+            System.arraycopy(children, 0, nodes, 0, at);
+            chars[at] = child.label[0];
+            nodes[at] = child;
+            System.arraycopy(firstChars, at, chars, at + 1, firstChars.length - at);
+            System.arraycopy(children, at, nodes, at + 1, children.length - at);
+            firstChars = chars;
+            children = nodes;
+        }
+
+        private void removeChild(Node child) {
+            int at = Arrays.binarySearch(firstChars, child.label[0]);
+            char[] chars = new char[firstChars.length - 1];
+            Node[] nodes = new Node[children.length - 1];
+            System.arraycopy(firstChars, 0, chars, 0, at);
+            System.arraycopy(children, 0, nodes, 0, at);
+            System.arraycopy(firstChars, at + 1, chars, at, chars.length - at);
+            System.arraycopy(children, at + 1, nodes, at, nodes.length - at);
+            firstChars = chars;
+            children = nodes;
+        }
+
+        // The replacement starts with the same character as the replaced child
+        private void replaceChild(Node current, Node replacement) {
+            children[Arrays.binarySearch(firstChars, current.label[0])] = replacement;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.bookstore.services;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bookstore.events.BookDeletedEvent;
+import com.bookstore.events.BookSavedEvent;
+import com.bookstore.events.ReviewSavedEvent;
+import com.bookstore.payload.response.BookSummaryResponse;
+import com.bookstore.repository.BookRepository;
+
+/**
+ * In-process leaderboard of the highest-rated books.
+ *
+ * The ranked set always holds the exact top-m books of the catalog for some
+ * m <= capacity: it is seeded from the rating index at startup and kept exact
+ * by committed review, book and deletion events. Those events are only
+ * published on the node that commits the change, so with several nodes each
+ * leaderboard misses the changes of the others until its next start. Readers
+ * only dereference a volatile immutable snapshot, so {@link #top(int)} never
+ * locks or queries.
+ */
+@Component
+public class TopBooksLeaderboard {
+
+    // Same order as BookRepository.findTopBookSummaries: rating, then review count, then ID
+    static final Comparator<BookSummaryResponse> RANKING = Comparator
+        .comparingDouble(BookSummaryResponse::getAverageRating).reversed()
+        .thenComparing(Comparator.comparingInt(BookSummaryResponse::getReviewCount).reversed())
+        .thenComparing(BookSummaryResponse::getBookId);
+
+    @Autowired
+    BookRepository bookRepository;
+
+    // Maximum number of books kept in memory
+    @Value("${book.leaderboard.capacity:100}")
+    private int capacity;
+
+    // Ranked entries and their index by book ID, guarded by this
+    private final TreeSet<BookSummaryResponse> ranked = new TreeSet<>(RANKING);
+    private final Map<Integer, BookSummaryResponse> members = new HashMap<>();
+
+    // True when the ranked set holds every book of the catalog, guarded by this
+    private boolean complete;
+
+    // Immutable view published to readers after every change
+    private volatile Snapshot snapshot;
+
+    /**
+     * Returns the top books from the in-memory snapshot.
+     *
+     * @param limit number of books requested
+     * @return top books, or null when the snapshot cannot answer (not seeded yet,
+     *         or fewer books are tracked than requested while more exist)
+     */
+    public List<BookSummaryResponse> top(int limit) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        if (limit > current.books.size()) {
+            return current.complete ? current.books : null;
+        }
+        return current.books.subList(0, limit);
+    }
+
+    /**
+     * Seeds the leaderboard from the rating index once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void seed() {
+        // One extra row tells whether books exist beyond the capacity
+        List<BookSummaryResponse> top = bookRepository.findTopBookSummaries(PageRequest.of(0, capacity + 1));
+
+        ranked.clear();
+        members.clear();
+        complete = top.size() <= capacity;
+        for (BookSummaryResponse book : top.subList(0, Math.min(top.size(), capacity))) {
+            ranked.add(book);
+            members.put(book.getBookId(), book);
+        }
+        publish();
+    }
+
+    /**
+     * Moves a reviewed book to its new rank once the review is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewSaved(ReviewSavedEvent event) {
+        update(event.getBook());
+    }
+
+    /**
+     * Adds a newly saved book, which only matters while the whole catalog fits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookSaved(BookSavedEvent event) {
+        update(event.getBook());
+    }
+
+    /**
+     * Drops a deleted book from the leaderboard.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookDeleted(BookDeletedEvent event) {
+        BookSummaryResponse current = members.remove(event.getBookId());
+        if (current != null) {
+            ranked.remove(current);
+            refillIfLow();
+            publish();
+        }
+    }
+
+    /**
+     * Applies the latest aggregates of a book while keeping the set an exact top-m.
+     *
+     * @param book summary carrying the committed rating aggregates
+     */
+    synchronized void update(BookSummaryResponse book) {
+        if (snapshot == null) {
+            return; // not seeded yet, the seed query will see this change
+        }
+
+        // Every book outside the set ranks at or below the current last entry
+        BookSummaryResponse floor = ranked.isEmpty() ? null : ranked.last();
+
+        BookSummaryResponse current = members.get(book.getBookId());
+        if (current != null) {
+            if (current.getReviewCount() > book.getReviewCount()) {
+                return; // an older event delivered late
+            }
+            ranked.remove(current);
+            members.remove(book.getBookId());
+        }
+
+        if (complete || (floor != null && RANKING.compare(book, floor) <= 0)) {
+            ranked.add(book);
+            members.put(book.getBookId(), book);
+            while (ranked.size() > capacity) {
+                members.remove(ranked.pollLast().getBookId());
+                complete = false;
+            }
+        }
+
+        refillIfLow();
+        publish();
+    }
+
+    // Reseeds from the database once too many members fell out of a partial set
+    private void refillIfLow() {
+        if (!complete && ranked.size() < Math.max(1, capacity / 2)) {
+            seed();
+        }
+    }
+
+    private void publish() {
+        snapshot = new Snapshot(List.copyOf(ranked), complete);
+    }
+
+    // Immutable state read by top(); books are in rank order
+    private static final class Snapshot {
+        private final List<BookSummaryResponse> books;
+        private final boolean complete;
+
+        private Snapshot(List<BookSummaryResponse> books, boolean complete) {
+            this.books = books;
+            this.complete = complete;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.bookstore.services;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bookstore.events.BookDeletedEvent;
+import com.bookstore.events.ReviewSavedEvent;
+import com.bookstore.metrics.MetricsSource;
+import com.bookstore.payload.response.BookSummaryResponse;
+import com.bookstore.payload.response.TrendingBookResponse;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.ReviewRepository;
+import com.bookstore.repository.ReviewTimeView;
+import com.bookstore.utils.SlidingWindowCounter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+
+/**
+ * Books trending by review velocity over sliding windows of the last hour and day.
+ *
+ * Every committed review is counted in one {@link SlidingWindowCounter} per
+ * window, which costs two array increments and no allocation. A ranker thread
+ * extracts the top books of every window periodically, loads their summaries
+ * in one query and publishes them as an immutable snapshot, so readers never
+ * lock or query. The windows are seeded from the review table at startup.
+ */
+@Component
+public class TrendingBooks implements MetricsSource {
+
+    public static final String HOUR = "1h";
+    public static final String DAY = "24h";
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    ReviewRepository reviewRepository;
+
+    // Number of buckets of the hour window, the resolution of its sliding
+    @Value("${book.trending.hour-buckets:60}")
+    private int hourBuckets;
+
+    // Number of buckets of the day window
+    @Value("${book.trending.day-buckets:96}")
+    private int dayBuckets;
+
+    // Number of books ranked per window at every refresh, the largest limit served
+    @Value("${book.trending.top-n:50}")
+    private int topN;
+
+    // Delay between two extractions of the top books
+    @Value("${book.trending.refresh-ms:10000}")
+    private long refreshMs;
+
+    // Seed the windows from the reviews of the last day at startup
+    @Value("${book.trending.seed-on-startup:true}")
+    private boolean seedOnStartup;
+
+    // Review counts per window, in window order, guarded by this
+    private final Map<String, SlidingWindowCounter> windows = new LinkedHashMap<>();
+
+    // Trending books per window, replaced as a whole by every refresh
+    private volatile Map<String, List<TrendingBookResponse>> snapshot = Map.of();
+
+    private ScheduledExecutorService ranker;
+
+    private long counted;
+    private long refreshes;
+    private volatile long lastRefreshMs;
+
+    /**
+     * Creates the windows and starts the ranker thread.
+     */
+    @PostConstruct
+    public void start() {
+        windows.put(HOUR, new SlidingWindowCounter(TimeUnit.HOURS.toMillis(1) / hourBuckets, hourBuckets));
+        windows.put(DAY, new SlidingWindowCounter(TimeUnit.DAYS.toMillis(1) / dayBuckets, dayBuckets));
+
+        ranker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trending-ranker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ranker.scheduleWithFixedDelay(this::refreshQuietly, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ranker.shutdownNow();
+    }
+
+    /**
+     * Counts the reviews of the last day once the application is ready, then ranks them.
+     * Reviews committed while seeding may be counted twice, a negligible skew for a trend.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void seed() {
+        if (!seedOnStartup) {
+            return;
+        }
+        LocalDateTime since = LocalDateTime.now().minusDays(1);
+        try (Stream<ReviewTimeView> reviews = reviewRepository.streamReviewTimesSince(since)) {
+            reviews.forEach(review -> count(review.getBookId(),
+                review.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), 1));
+        }
+        refresh();
+    }
+
+    /**
+     * Counts the reviews of a book once they are committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewSaved(ReviewSavedEvent event) {
+        count(event.getBook().getBookId(), System.currentTimeMillis(), event.getReviewCount());
+    }
+
+    /**
+     * Forgets a deleted book and drops it from the published lists.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookDeleted(BookDeletedEvent event) {
+        int bookId = event.getBookId();
+        synchronized (this) {
+            windows.values().forEach(window -> window.remove(bookId));
+        }
+
+        Map<String, List<TrendingBookResponse>> remaining = new HashMap<>();
+        snapshot.forEach((window, books) -> remaining.put(window,
+            books.stream().filter(book -> book.getBookId() != bookId).toList()));
+        snapshot = Map.copyOf(remaining);
+    }
+
+    /**
+     * @param window window name, such as {@link #HOUR} or {@link #DAY}
+     * @return true if the window exists
+     */
+    public boolean hasWindow(String window) {
+        return windows.containsKey(window);
+    }
+
+    /**
+     * @return names of the windows, shortest first
+     */
+    public Set<String> getWindows() {
+        return windows.keySet();
+    }
+
+    /**
+     * @return largest number of books ranked per window
+     */
+    public int getTopN() {
+        return topN;
+    }
+
+    /**
+     * Returns the most reviewed books of a window as of the last refresh.
+     *
+     * @param window window name
+     * @param limit  number of books requested, at most the top-n
+     * @return most reviewed books first, empty before the first refresh
+     */
+    public List<TrendingBookResponse> trending(String window, int limit) {
+        List<TrendingBookResponse> books = snapshot.getOrDefault(window, List.of());
+        return books.subList(0, Math.min(limit, books.size()));
+    }
+
+    /**
+     * Extracts the top books of every window and publishes them with their summaries.
+     */
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        Map<String, long[]> tops = new LinkedHashMap<>();
+        synchronized (this) {
+            windows.forEach((name, window) -> tops.put(name, window.top(topN, now)));
+        }
+
+        // One query for the summaries of every ranked book; deleted books have none and are skipped
+        Set<Integer> bookIds = new HashSet<>();
+        tops.values().forEach(pairs -> {
+            for (long pair : pairs) {
+                bookIds.add(SlidingWindowCounter.keyOf(pair));
+            }
+        });
+        Map<Integer, BookSummaryResponse> summaries = new HashMap<>();
+        if (!bookIds.isEmpty()) {
+            bookRepository.findSummariesByIdIn(bookIds).forEach(summary -> summaries.put(summary.getBookId(), summary));
+        }
+
+        Map<String, List<TrendingBookResponse>> ranked = new HashMap<>();
+        tops.forEach((name, pairs) -> {
+            List<TrendingBookResponse> books = new ArrayList<>(pairs.length);
+            for (long pair : pairs) {
+                BookSummaryResponse summary = summaries.get(SlidingWindowCounter.keyOf(pair));
+                if (summary != null) {
+                    books.add(new TrendingBookResponse(summary.getBookId(), summary.getTitle(),
+                        summary.getAuthorUsername(), summary.getAverageRating(), SlidingWindowCounter.countOf(pair)));
+                }
+            }
+            ranked.put(name, List.copyOf(books));
+        });
+        snapshot = Map.copyOf(ranked);
+
+        synchronized (this) {
+            refreshes++;
+        }
+        lastRefreshMs = System.currentTimeMillis() - now;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "book.trending";
+    }
+
+    @Override
+    public synchronized Map<String, Number> getMetrics() {
+        return Map.of(
+            "counted-reviews", counted,
+            "refreshes", refreshes,
+            "last-refresh-ms", lastRefreshMs,
+            "tracked-books-1h", windows.get(HOUR).size(),
+            "tracked-books-24h", windows.get(DAY).size());
+    }
+
+    private synchronized void count(int bookId, long atMillis, int reviews) {
+        for (SlidingWindowCounter window : windows.values()) {
+            window.add(bookId, atMillis, reviews);
+        }
+        counted += reviews;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            System.err.println("Trending refresh failed: " + e.getMessage());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.bookstore.services;
 import java.util.Collections;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Service;
 
 import com.bookstore.entity.UserEntity;
 import com.bookstore.entity.Role;
+import com.bookstore.events.UserChangedEvent;
 import com.bookstore.payload.request.UserRequest;
 import com.bookstore.repository.RoleRepository;
 import com.bookstore.repository.UserRepository;
@@ -30,6 +32,9 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private PasswordEncoder pwdEncoder;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     /**
      * Saves a new user with encoded password and assigned role.
      * If a user with the same username exists, returns false.
@@ -57,6 +62,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             return false;
         }
         
+        // A user deleted and registered again may still have a cached principal
+        eventPublisher.publishEvent(new UserChangedEvent(userEntity.getUsername()));
         return true;
     }
     
@@ -79,7 +86,11 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     @Transactional
     public int deleteUser(String username) {
-        return userRepository.deleteByUsername(username);
+        int deleted = userRepository.deleteByUsername(username);
+        
+        // Stop authenticating the user's tokens once the deletion is committed
+        eventPublisher.publishEvent(new UserChangedEvent(username));
+        return deleted;
     }
     
 }
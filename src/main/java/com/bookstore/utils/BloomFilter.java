@@ -0,0 +1,149 @@
+package com.bookstore.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of strings.
+ *
+ * Answers "definitely absent" or "probably present": a key that was put is
+ * always reported present, a key that was not is reported present with a
+ * probability close to the configured false positive rate as long as no more
+ * than the expected number of keys were put. The k bit positions of a key are
+ * derived from one 64-bit hash by double hashing. Bits are set with CAS, so
+ * concurrent puts and lookups need no lock.
+ */
+public final class BloomFilter {
+
+    private final long expectedInsertions;
+    private final long bitSize;
+    private final int hashCount;
+    private final AtomicLongArray words;
+
+    private final AtomicLong insertions = new AtomicLong();
+    private final AtomicLong bitsSet = new AtomicLong();
+
+    /**
+     * Sizes the filter for the expected number of keys and false positive rate.
+     *
+     * @param expectedInsertions number of keys the filter is sized for
+     * @param falsePositiveRate  target probability of reporting an absent key as present, in (0, 1)
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive and the rate in (0, 1)");
+        }
+        this.expectedInsertions = expectedInsertions;
+
+        // m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hashes minimize the rate for n keys
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitSize = Math.max(64, (bits + 63) / 64 * 64);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.words = new AtomicLongArray(Math.toIntExact(bitSize / 64));
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @param key key to add
+     * @return true if a bit changed, i.e. the key was definitely absent before
+     */
+    public boolean put(CharSequence key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        boolean changed = false;
+        for (int i = 1; i <= hashCount; i++) {
+            changed |= setBit(index(h1, h2, i));
+        }
+        insertions.incrementAndGet();
+        return changed;
+    }
+
+    /**
+     * @param key key to look up
+     * @return false if the key was definitely never put, true if it probably was
+     */
+    public boolean mightContain(CharSequence key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1, h2, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return false positive rate expected from the fraction of bits currently set
+     */
+    public double getExpectedFalsePositiveRate() {
+        return Math.pow((double) bitsSet.get() / bitSize, hashCount);
+    }
+
+    /**
+     * @return number of keys put so far, counting repeated keys
+     */
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    /**
+     * @return number of keys the filter was sized for
+     */
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * @return number of bits of the filter
+     */
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    /**
+     * @return number of bits set per key
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    // Bit i of the key: h1 + i * h2, kept non-negative
+    private long index(int h1, int h2, int i) {
+        return ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitSize;
+    }
+
+    private boolean setBit(long bit) {
+        int word = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        while (true) {
+            long current = words.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(word, current, current | mask)) {
+                bitsSet.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    // FNV-1a over the chars, then the MurmurHash3 finalizer so both halves are well mixed
+    private static long hash(CharSequence key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
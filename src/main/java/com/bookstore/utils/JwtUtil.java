@@ -2,9 +2,12 @@ package com.bookstore.utils;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import com.bookstore.services.UserDetailsImpl;
@@ -24,6 +27,17 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private int JWT_EXPIRATION;
     
+    // Embed the user ID and roles in tokens and authenticate requests from them without loading the user
+    @Value("${jwt.stateless-principal:false}")
+    private boolean STATELESS_PRINCIPAL;
+    
+    // Lifetime of the tokens carrying roles, short as a deleted user or revoked role stays valid until expiry
+    @Value("${jwt.stateless-expiration:900000}")
+    private int STATELESS_JWT_EXPIRATION;
+    
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+    
     /**
      * Generates a JWT token using the authenticated user's username.
      * Sets issued date and expiration date, then signs with the secret key.
@@ -34,14 +48,57 @@ public class JwtUtil {
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
         
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(userPrincipal.getUsername())           // set username as subject
-                .setIssuedAt(new Date())                            // current time as issued date
-                .setExpiration(new Date((new Date()).getTime() + JWT_EXPIRATION))  // expiration time
+                .setIssuedAt(new Date());                           // current time as issued date
+        
+        if (STATELESS_PRINCIPAL) {
+            // Everything the principal needs, so requests are authenticated without a query
+            builder.claim(USER_ID_CLAIM, userPrincipal.getId())
+                    .claim(ROLES_CLAIM, userPrincipal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                    .setExpiration(new Date((new Date()).getTime() + STATELESS_JWT_EXPIRATION));
+        } else {
+            builder.setExpiration(new Date((new Date()).getTime() + JWT_EXPIRATION));  // expiration time
+        }
+        
+        return builder
                 .signWith(key(), SignatureAlgorithm.HS256)         // sign with HMAC SHA256 and secret key
                 .compact();
     }
     
+    /**
+     * @return true if requests are authenticated from the claims of their token rather than from the database
+     */
+    public boolean isStatelessPrincipal() {
+        return STATELESS_PRINCIPAL;
+    }
+    
+    /**
+     * Verifies the JWT token and builds the principal from its claims.
+     * Tokens issued before stateless principals were enabled carry no roles and yield null.
+     * 
+     * @param token JWT token string
+     * @return principal with the ID, username and authorities of the token, or null if it has no roles claim
+     * @throws JwtException if the token is invalid or expired
+     */
+    public UserDetailsImpl getPrincipalFromJwtToken(String token) {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(key())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        
+        Object roles = claims.get(ROLES_CLAIM);
+        Object userId = claims.get(USER_ID_CLAIM);
+        if (!(roles instanceof List<?> roleNames) || !(userId instanceof Number id)) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = roleNames.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return new UserDetailsImpl(id.longValue(), claims.getSubject(), null, authorities);
+    }
+    
     /**
      * Constructs the signing key from the base64 encoded SECRET_KEY.
      * 
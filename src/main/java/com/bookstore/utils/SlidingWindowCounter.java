@@ -0,0 +1,265 @@
+package com.bookstore.utils;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Event counts per int key over a sliding time window.
+ *
+ * The window is a ring of fixed-width time buckets: every key owns one
+ * counter per bucket and the running total of its ring. When time moves
+ * past a bucket, that bucket is cleared for every key and its counts are
+ * taken off the totals, so the window slides one bucket at a time without
+ * replaying events. Keys live in an open-addressing table whose counters
+ * sit in flat arrays, so counting an event allocates nothing; only the
+ * growth of the table does. Keys whose window became empty are dropped
+ * the next time the table is rebuilt.
+ *
+ * Not thread-safe, callers synchronize.
+ */
+public final class SlidingWindowCounter {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final long bucketMillis;
+    private final int buckets;
+
+    // Open-addressing table: key of every slot and whether it is used
+    private int[] keys;
+    private boolean[] used;
+    private int size;
+
+    // Count of slot s in bucket b at s * buckets + b, and the total of every slot
+    private int[] counts;
+    private int[] totals;
+
+    // Number of the time bucket currently being filled, -1 before the first event
+    private long currentBucket = -1;
+
+    /**
+     * @param bucketMillis width of a bucket in milliseconds
+     * @param buckets      number of buckets, the window is bucketMillis * buckets wide
+     */
+    public SlidingWindowCounter(long bucketMillis, int buckets) {
+        if (bucketMillis <= 0 || buckets <= 0) {
+            throw new IllegalArgumentException("Bucket width and count must be positive");
+        }
+        this.bucketMillis = bucketMillis;
+        this.buckets = buckets;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @return width of the window in milliseconds
+     */
+    public long getWindowMillis() {
+        return bucketMillis * buckets;
+    }
+
+    /**
+     * Counts one event of a key. Events older than the window are ignored.
+     *
+     * @param key      counted key
+     * @param atMillis time of the event in epoch milliseconds
+     */
+    public void increment(int key, long atMillis) {
+        add(key, atMillis, 1);
+    }
+
+    /**
+     * Counts several events of a key that happened at the same time. Events older than the window are ignored.
+     *
+     * @param key      counted key
+     * @param atMillis time of the events in epoch milliseconds
+     * @param count    number of events
+     */
+    public void add(int key, long atMillis, int count) {
+        long bucket = Math.floorDiv(atMillis, bucketMillis);
+        if (bucket > currentBucket) {
+            advanceTo(bucket);
+        } else if (bucket <= currentBucket - buckets) {
+            return;
+        }
+
+        int slot = slotOf(key);
+        if (slot < 0) {
+            slot = insert(key);
+        }
+        counts[slot * buckets + (int) Math.floorMod(bucket, (long) buckets)] += count;
+        totals[slot] += count;
+    }
+
+    /**
+     * Forgets every event of a key.
+     *
+     * @param key removed key
+     */
+    public void remove(int key) {
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            Arrays.fill(counts, slot * buckets, (slot + 1) * buckets, 0);
+            totals[slot] = 0;
+        }
+    }
+
+    /**
+     * Returns the number of events of a key within the window ending at the given time.
+     *
+     * @param key      counted key
+     * @param nowMillis end of the window in epoch milliseconds
+     * @return number of events in the window
+     */
+    public int count(int key, long nowMillis) {
+        advanceTo(Math.floorDiv(nowMillis, bucketMillis));
+        int slot = slotOf(key);
+        return slot < 0 ? 0 : totals[slot];
+    }
+
+    /**
+     * Returns the keys with the most events within the window ending at the given time.
+     *
+     * @param limit     maximum number of keys
+     * @param nowMillis end of the window in epoch milliseconds
+     * @return pairs of key and count, most events first, ties to the lower key
+     */
+    public long[] top(int limit, long nowMillis) {
+        advanceTo(Math.floorDiv(nowMillis, bucketMillis));
+
+        // Min-heap of the best pairs so far, packed so that a larger value is a better pair
+        PriorityQueue<Long> best = new PriorityQueue<>();
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot] && totals[slot] > 0) {
+                best.add(pack(totals[slot], keys[slot]));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        long[] result = new long[best.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = best.poll();
+        }
+        return result;
+    }
+
+    /**
+     * @param pair element returned by {@link #top(int, long)}
+     * @return key of the pair
+     */
+    public static int keyOf(long pair) {
+        return (int) pair ^ Integer.MAX_VALUE;
+    }
+
+    /**
+     * @param pair element returned by {@link #top(int, long)}
+     * @return count of the pair
+     */
+    public static int countOf(long pair) {
+        return (int) (pair >> 32);
+    }
+
+    /**
+     * @return number of keys currently tracked, including keys with an empty window
+     */
+    public int size() {
+        return size;
+    }
+
+    // Larger count first, then lower key: the low half maps keys to unsigned values in reverse order
+    private static long pack(int count, int key) {
+        return ((long) count << 32) | ((key ^ Integer.MAX_VALUE) & 0xFFFFFFFFL);
+    }
+
+    // Clears the buckets that fall out of the window when time reaches the given bucket
+    private void advanceTo(long bucket) {
+        if (bucket <= currentBucket) {
+            return;
+        }
+        long from = currentBucket < 0 ? bucket : Math.max(currentBucket + 1, bucket - buckets + 1);
+        for (long b = from; b <= bucket; b++) {
+            int index = (int) Math.floorMod(b, (long) buckets);
+            for (int slot = 0; slot < keys.length; slot++) {
+                int offset = slot * buckets + index;
+                totals[slot] -= counts[offset];
+                counts[offset] = 0;
+            }
+        }
+        currentBucket = bucket;
+    }
+
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int insert(int key) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            rehash();
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        used[slot] = true;
+        size++;
+        return slot;
+    }
+
+    // Rebuilds the table without the keys whose window is empty, growing it if still crowded
+    private void rehash() {
+        int[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        int[] oldCounts = counts;
+        int[] oldTotals = totals;
+
+        int live = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldUsed[slot] && oldTotals[slot] > 0) {
+                live++;
+            }
+        }
+        int capacity = INITIAL_CAPACITY;
+        while ((live + 1) * 2 > capacity) {
+            capacity *= 2;
+        }
+        allocate(capacity);
+
+        int mask = capacity - 1;
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            if (!oldUsed[oldSlot] || oldTotals[oldSlot] == 0) {
+                continue;
+            }
+            int slot = hash(oldKeys[oldSlot]) & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[oldSlot];
+            used[slot] = true;
+            totals[slot] = oldTotals[oldSlot];
+            System.arraycopy(oldCounts, oldSlot * buckets, counts, slot * buckets, buckets);
+            size++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        used = new boolean[capacity];
+        counts = new int[capacity * buckets];
+        totals = new int[capacity];
+        size = 0;
+    }
+
+    // Spreads consecutive IDs over the table
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
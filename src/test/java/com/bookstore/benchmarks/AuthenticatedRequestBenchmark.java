@@ -0,0 +1,94 @@
+package com.bookstore.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.bookstore.configs.Constants;
+import com.bookstore.security.PrincipalCache;
+import com.bookstore.services.UserDetailsServiceImpl;
+import com.bookstore.utils.JwtUtil;
+
+/**
+ * Throughput of a cheap authenticated request depending on where the principal comes from:
+ * the database on every request, the principal cache, or the claims of a stateless token.
+ * Run with {@code mvn test -Dtest=AuthenticatedRequestBenchmark -Dbookstore.benchmarks=true}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "bookstore.benchmarks", matches = "true")
+public class AuthenticatedRequestBenchmark {
+
+	private static final String URL = "/book/trending?window=1h&limit=1";
+	private static final int REQUESTS = 5000;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private PrincipalCache principalCache;
+
+	@Autowired
+	private UserDetailsServiceImpl userDetailsService;
+
+	@Test
+	void authenticatedRequest_databaseVersusCacheVersusStateless() throws Exception {
+		Object ttlMs = ReflectionTestUtils.getField(principalCache, "ttlMs");
+		try {
+			// The test context does not run the startup seeding of BookStoreApplication.main
+			userDetailsService.saveUser(Constants.ADMIN_USER);
+			UserDetails admin = userDetailsService.loadUserByUsername(Constants.ADMIN_USER.getUsername());
+			UsernamePasswordAuthenticationToken authentication =
+				new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities());
+			String token = jwtUtil.generateJwtToken(authentication);
+
+			// A zero time to live disables the cache
+			ReflectionTestUtils.setField(principalCache, "ttlMs", 0L);
+			double database = requestsPerSecond(token);
+
+			ReflectionTestUtils.setField(principalCache, "ttlMs", ttlMs);
+			double cached = requestsPerSecond(token);
+
+			ReflectionTestUtils.setField(jwtUtil, "STATELESS_PRINCIPAL", true);
+			double stateless = requestsPerSecond(jwtUtil.generateJwtToken(authentication));
+
+			System.out.printf("Authenticated GET %s, %d requests%n", URL, REQUESTS);
+			System.out.printf("User loaded from the database: %8.0f requests/s%n", database);
+			System.out.printf("User from the principal cache: %8.0f requests/s (%.2fx)%n", cached, cached / database);
+			System.out.printf("Principal from token claims:  %8.0f requests/s (%.2fx)%n", stateless, stateless / database);
+		} finally {
+			ReflectionTestUtils.setField(principalCache, "ttlMs", ttlMs);
+			ReflectionTestUtils.setField(jwtUtil, "STATELESS_PRINCIPAL", false);
+		}
+	}
+
+	private double requestsPerSecond(String token) throws Exception {
+		// Warm up before measuring
+		for (int i = 0; i < REQUESTS / 5; i++) {
+			get(token);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < REQUESTS; i++) {
+			get(token);
+		}
+		return REQUESTS / ((System.nanoTime() - start) / 1e9);
+	}
+
+	private void get(String token) throws Exception {
+		int status = mockMvc.perform(MockMvcRequestBuilders.get(URL).header("Authorization", "Bearer " + token))
+			.andReturn().getResponse().getStatus();
+		assertEquals(200, status);
+	}
+}
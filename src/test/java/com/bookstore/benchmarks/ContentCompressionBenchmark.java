@@ -0,0 +1,116 @@
+package com.bookstore.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.bookstore.helpers.ContentCodec;
+
+/**
+ * Storage size and read latency of compressed book content on a synthetic catalog.
+ * Run with {@code mvn test -Dtest=ContentCompressionBenchmark -Dbookstore.benchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "bookstore.benchmarks", matches = "true")
+public class ContentCompressionBenchmark {
+
+	private static final int BOOKS = 400;
+	private static final int MIN_BYTES = 2 * 1024;
+	private static final int MAX_BYTES = 1024 * 1024;
+	private static final int ROUNDS = 5;
+
+	@Test
+	void compressedContent_storageAndReadLatency() {
+		List<String> catalog = syntheticCatalog(new Random(42));
+
+		long rawBytes = 0;
+		long storedBytes = 0;
+		List<byte[]> raw = new ArrayList<>();
+		List<byte[]> stored = new ArrayList<>();
+		long encodeStart = System.nanoTime();
+		for (String content : catalog) {
+			byte[] encoded = ContentCodec.encode(content);
+			stored.add(encoded);
+			storedBytes += encoded.length;
+		}
+		long encodeNanos = System.nanoTime() - encodeStart;
+		for (String content : catalog) {
+			byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+			raw.add(bytes);
+			rawBytes += bytes.length;
+		}
+
+		long[] rawReads = new long[BOOKS * ROUNDS];
+		long[] storedReads = new long[BOOKS * ROUNDS];
+		for (int round = 0; round < ROUNDS + 1; round++) { // first round warms up
+			for (int i = 0; i < BOOKS; i++) {
+				long start = System.nanoTime();
+				String plain = new String(raw.get(i), StandardCharsets.UTF_8);
+				long middle = System.nanoTime();
+				String decoded = ContentCodec.decode(stored.get(i));
+				long end = System.nanoTime();
+				assertEquals(plain.length(), decoded.length());
+				if (round > 0) {
+					rawReads[(round - 1) * BOOKS + i] = middle - start;
+					storedReads[(round - 1) * BOOKS + i] = end - middle;
+				}
+			}
+		}
+
+		System.out.printf("Synthetic catalog: %d books, %.1f MB of text%n", BOOKS, rawBytes / 1e6);
+		System.out.printf("Stored size: %.1f MB (%.1f%% of raw), encoded at %.0f MB/s%n",
+			storedBytes / 1e6, 100.0 * storedBytes / rawBytes, rawBytes / 1e6 / (encodeNanos / 1e9));
+		System.out.printf("Read, plain UTF-8:  mean %6.0f us, p50 %6.0f us, p99 %6.0f us%n",
+			mean(rawReads), percentile(rawReads, 50), percentile(rawReads, 99));
+		System.out.printf("Read, compressed:   mean %6.0f us, p50 %6.0f us, p99 %6.0f us%n",
+			mean(storedReads), percentile(storedReads, 50), percentile(storedReads, 99));
+	}
+
+	// Books of log-uniform size made of Zipf-distributed words, close to natural text
+	private static List<String> syntheticCatalog(Random random) {
+		String[] vocabulary = new String[5000];
+		for (int i = 0; i < vocabulary.length; i++) {
+			char[] word = new char[2 + random.nextInt(9)];
+			for (int c = 0; c < word.length; c++) {
+				word[c] = (char) ('a' + random.nextInt(26));
+			}
+			vocabulary[i] = new String(word);
+		}
+		double[] cumulative = new double[vocabulary.length];
+		double total = 0;
+		for (int i = 0; i < vocabulary.length; i++) {
+			total += 1.0 / (i + 1);
+			cumulative[i] = total;
+		}
+
+		List<String> catalog = new ArrayList<>();
+		for (int book = 0; book < BOOKS; book++) {
+			int size = (int) (MIN_BYTES * Math.pow((double) MAX_BYTES / MIN_BYTES, random.nextDouble()));
+			StringBuilder text = new StringBuilder(size + 16);
+			int sentence = 0;
+			while (text.length() < size) {
+				int at = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+				text.append(vocabulary[Math.min(at < 0 ? -at - 1 : at, vocabulary.length - 1)]);
+				text.append(++sentence % 12 == 0 ? ". " : " ");
+			}
+			catalog.add(text.toString());
+		}
+		return catalog;
+	}
+
+	private static double mean(long[] nanos) {
+		return Arrays.stream(nanos).average().orElse(0) / 1000;
+	}
+
+	private static double percentile(long[] nanos, int percentile) {
+		long[] sorted = nanos.clone();
+		Arrays.sort(sorted);
+		return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)] / 1000.0;
+	}
+}
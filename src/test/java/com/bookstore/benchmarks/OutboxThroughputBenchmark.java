@@ -0,0 +1,106 @@
+package com.bookstore.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstore.entity.NotificationOutbox;
+import com.bookstore.repository.NotificationOutboxRepository;
+import com.bookstore.services.FakeNotificationTransport;
+import com.bookstore.services.NotificationOutboxPoller;
+
+/**
+ * Outbox delivery throughput per claim batch size, with a transport that only records,
+ * so the cost of claiming, leasing and deleting rows is measured.
+ * Run with {@code mvn test -Dtest=OutboxThroughputBenchmark -Dbookstore.benchmarks=true}.
+ */
+// An own database, as the pollers of the other cached test contexts would deliver these rows too,
+// and the background poll pushed out of the way so the outbox is polled by hand
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1",
+	"spring.datasource.driver-class-name=org.h2.Driver",
+	"spring.datasource.username=sa",
+	"spring.datasource.password=",
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"notification.outbox.poll-interval-ms=3600000" })
+@EnabledIfSystemProperty(named = "bookstore.benchmarks", matches = "true")
+public class OutboxThroughputBenchmark {
+
+	private static final int NOTIFICATIONS = 20000;
+
+	@TestConfiguration
+	static class FakeTransportConfiguration {
+		@Bean
+		@Primary
+		FakeNotificationTransport fakeNotificationTransport() {
+			return new FakeNotificationTransport();
+		}
+	}
+
+	@Autowired
+	private NotificationOutboxPoller poller;
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepository;
+
+	@Autowired
+	private FakeNotificationTransport transport;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void outboxDelivery_byBatchSize() {
+		outboxRepository.deleteAllInBatch();
+
+		// Warm up before measuring
+		deliver(10, 2000);
+
+		System.out.printf("Outbox delivery of %d notifications%n", NOTIFICATIONS);
+		for (int batchSize : new int[] { 1, 10, 100, 500 }) {
+			System.out.printf("batch of %3d: %8.0f notifications/s%n", batchSize, deliver(batchSize, NOTIFICATIONS));
+		}
+	}
+
+	private double deliver(int batchSize, int count) {
+		enqueue(count);
+		transport.reset();
+		ReflectionTestUtils.setField(poller, "batchSize", batchSize);
+
+		long start = System.nanoTime();
+		int delivered = poller.drain();
+		double rate = delivered / ((System.nanoTime() - start) / 1e9);
+
+		assertEquals(count, delivered);
+		assertEquals(count, transport.getSent().size());
+		return rate;
+	}
+
+	private void enqueue(int count) {
+		for (int from = 0; from < count; from += 1000) {
+			int first = from;
+			int chunk = Math.min(count - from, 1000);
+			transactionTemplate.executeWithoutResult(status -> {
+				List<NotificationOutbox> notifications = new ArrayList<>();
+				LocalDateTime now = LocalDateTime.now();
+				// One book per notification, so every notification is a digest of its own
+				for (int i = 0; i < chunk; i++) {
+					notifications.add(new NotificationOutbox(first + i, "bench@example.com", "Benchmark Book", 1, now, now));
+				}
+				outboxRepository.saveAll(notifications);
+			});
+		}
+	}
+}
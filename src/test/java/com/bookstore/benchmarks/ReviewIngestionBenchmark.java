@@ -0,0 +1,110 @@
+package com.bookstore.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstore.entity.Book;
+import com.bookstore.entity.UserEntity;
+import com.bookstore.payload.request.ReviewRequest;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.UserRepository;
+import com.bookstore.services.ReviewService;
+
+/**
+ * Review ingestion throughput: one saveReview call per review against the bulk path.
+ * Notifications only cost their outbox rows, as none is due before the end of its digest window.
+ * Run with {@code mvn test -Dtest=ReviewIngestionBenchmark -Dbookstore.benchmarks=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "bookstore.benchmarks", matches = "true")
+public class ReviewIngestionBenchmark {
+
+	private static final int FIRST_BOOK_ID = 9500;
+	private static final int BOOKS = 50;
+	private static final int REVIEWERS = 250; // enough distinct (book, reviewer) pairs for every run below
+	private static final int REVIEWS = 5000;
+	private static final int BULK_SIZE = 1000;
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	// Next unused (book, reviewer) pair, as a reviewer reviews a book once
+	private int nextPair;
+
+	@Test
+	void reviewIngestion_singleVersusBulk() {
+		transactionTemplate.executeWithoutResult(status -> seed());
+
+		// Warm up both paths before measuring
+		ingestOneByOne(requests(200));
+		ingestInBulk(requests(200));
+
+		double single = ingestOneByOne(requests(REVIEWS));
+		double bulk = ingestInBulk(requests(REVIEWS));
+
+		System.out.printf("Review ingestion of %d reviews over %d books%n", REVIEWS, BOOKS);
+		System.out.printf("saveReview one by one: %8.0f reviews/s%n", single);
+		System.out.printf("saveReviews in %d:   %8.0f reviews/s (%.1fx)%n", BULK_SIZE, bulk, bulk / single);
+	}
+
+	private double ingestOneByOne(List<ReviewRequest> requests) {
+		long start = System.nanoTime();
+		for (ReviewRequest request : requests) {
+			reviewService.saveReview(request);
+		}
+		return requests.size() / ((System.nanoTime() - start) / 1e9);
+	}
+
+	private double ingestInBulk(List<ReviewRequest> requests) {
+		long start = System.nanoTime();
+		for (int from = 0; from < requests.size(); from += BULK_SIZE) {
+			List<ReviewRequest> chunk = requests.subList(from, Math.min(requests.size(), from + BULK_SIZE));
+			assertEquals(chunk.size(), reviewService.saveReviews(chunk).getSaved());
+		}
+		return requests.size() / ((System.nanoTime() - start) / 1e9);
+	}
+
+	private List<ReviewRequest> requests(int count) {
+		List<ReviewRequest> requests = new ArrayList<>();
+		for (int i = 0; i < count; i++, nextPair++) {
+			requests.add(new ReviewRequest(FIRST_BOOK_ID + nextPair % BOOKS, "bench" + nextPair / BOOKS, 1 + i % 5, "Imported review " + i));
+		}
+		return requests;
+	}
+
+	private void seed() {
+		UserEntity author = userRepository.findByUsername("bench0").orElse(null);
+		for (int i = 0; i < REVIEWERS; i++) {
+			if (userRepository.findByUsername("bench" + i).isEmpty()) {
+				UserEntity user = userRepository.save(new UserEntity("bench" + i, "1234567"));
+				author = author == null ? user : author;
+			}
+		}
+		for (int i = 0; i < BOOKS; i++) {
+			if (!bookRepository.existsById(FIRST_BOOK_ID + i)) {
+				Book book = new Book();
+				book.setBookId(FIRST_BOOK_ID + i);
+				book.setTitle("Benchmark Book " + i);
+				book.setAuthor(author);
+				bookRepository.save(book);
+			}
+		}
+	}
+}
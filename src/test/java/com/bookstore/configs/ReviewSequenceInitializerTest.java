@@ -0,0 +1,67 @@
+package com.bookstore.configs;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bookstore.entity.Book;
+import com.bookstore.entity.Review;
+import com.bookstore.entity.UserEntity;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.UserRepository;
+
+@SpringBootTest
+public class ReviewSequenceInitializerTest {
+
+	// Book ID reserved for this test class
+	private static final int BOOK_ID = 9300;
+
+	@Autowired
+	private ReviewSequenceInitializer initializer;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@AfterEach
+	public void tearDown() {
+		jdbcTemplate.update("DELETE FROM review WHERE book_id = ?", BOOK_ID);
+		bookRepository.deleteById(BOOK_ID);
+	}
+
+	@Test
+	void alignReviewSequence_shouldMovePastReviewsNumberedElsewhere() {
+		UserEntity reviewer = userRepository.findByUsername("sequencereviewer")
+			.orElseGet(() -> userRepository.save(new UserEntity("sequencereviewer", "1234567")));
+		Book book = new Book();
+		book.setBookId(BOOK_ID);
+		book.setTitle("Numbered Elsewhere");
+		book.setAuthor(reviewer);
+		bookRepository.save(book);
+
+		// A review numbered by the former identity column, far ahead of the sequence
+		long importedId = nextValue() + 10_000;
+		jdbcTemplate.update("INSERT INTO review (review_id, book_id, reviewer_id, rating, comment, timestamp) VALUES (?, ?, ?, 4, ?, ?)",
+			importedId, BOOK_ID, reviewer.getUserId(), "Imported", LocalDateTime.now());
+
+		initializer.alignReviewSequence();
+
+		// The next block Hibernate draws ends at the value read, and starts after the imported review
+		assertTrue(nextValue() - Review.ID_ALLOCATION_SIZE >= importedId);
+	}
+
+	private long nextValue() {
+		return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + Review.ID_SEQUENCE, Long.class);
+	}
+}
@@ -126,7 +126,7 @@ public class BookControllerTest {
         assertTrue(bodyString.contains("bookId")
                 && bodyString.contains("author")
                 && bodyString.contains("title")
-                && bodyString.contains("content"));
+                && bodyString.contains("averageRating"));
     }
     
     @Test
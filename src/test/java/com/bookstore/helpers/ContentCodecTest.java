@@ -0,0 +1,39 @@
+package com.bookstore.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+public class ContentCodecTest {
+
+	@Test
+	void encode_shouldStoreShortContentUncompressed() {
+		byte[] stored = ContentCodec.encode("Short text");
+
+		assertEquals(ContentCodec.STORED, stored[4]);
+		assertEquals("Short text", ContentCodec.decode(stored));
+	}
+
+	@Test
+	void encode_shouldCompressLargeContent_acrossSeveralBlocks() {
+		String content = "All work and no play makes Jack a dull boy. Ünïcödé ✓\n".repeat(5000);
+
+		byte[] stored = ContentCodec.encode(content);
+
+		assertEquals(ContentCodec.DEFLATE_BLOCKS, stored[4]);
+		assertTrue(content.getBytes(StandardCharsets.UTF_8).length > 2 * ContentCodec.BLOCK_SIZE);
+		assertTrue(stored.length < content.length() / 10);
+		assertEquals(content, ContentCodec.decode(stored));
+	}
+
+	@Test
+	void decode_shouldReadRowsWrittenBeforeCompression() {
+		String content = "Plain text stored by an older version, ünïcödé included.";
+
+		assertEquals(content, ContentCodec.decode(content.getBytes(StandardCharsets.UTF_8)));
+		assertEquals("", ContentCodec.decode(new byte[0]));
+	}
+}
@@ -0,0 +1,190 @@
+package com.bookstore.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class IdempotencyFilterTest {
+
+	private IdempotencyStore store;
+
+	private IdempotencyFilter filter;
+
+	// Number of requests that reached the controller
+	private final AtomicInteger executions = new AtomicInteger();
+
+	// Status the controller answers with
+	private volatile int status = 201;
+
+	// Holds the controller until released
+	private volatile CountDownLatch gate = new CountDownLatch(0);
+
+	// Released once a request reached the controller
+	private final CountDownLatch executing = new CountDownLatch(1);
+
+	// Echoes the request body, as the controllers answer with the saved resource
+	private final FilterChain chain = (request, response) -> {
+		executions.incrementAndGet();
+		executing.countDown();
+		try {
+			gate.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		byte[] body = request.getInputStream().readAllBytes();
+		((HttpServletResponse) response).setStatus(status);
+		response.setContentType("application/json");
+		response.getOutputStream().write(("{\"saved\":" + new String(body, StandardCharsets.UTF_8) + "}").getBytes(StandardCharsets.UTF_8));
+	};
+
+	@BeforeEach
+	public void setUp() {
+		store = new IdempotencyStore();
+		ReflectionTestUtils.setField(store, "ttlMs", 60000L);
+		ReflectionTestUtils.setField(store, "maxEntries", 100);
+		ReflectionTestUtils.setField(store, "maxBodyBytes", 65536);
+		ReflectionTestUtils.setField(store, "waitTimeoutMs", 5000L);
+		filter = new IdempotencyFilter(store);
+	}
+
+	@Test
+	public void testRetryReplaysTheFirstResponse() throws Exception {
+		MockHttpServletResponse first = send("key-1", "{\"rating\":5}");
+		MockHttpServletResponse retry = send("key-1", "{\"rating\":5}");
+
+		assertEquals(1, executions.get());
+		assertEquals(201, first.getStatus());
+		assertNull(first.getHeader(IdempotencyFilter.REPLAYED));
+		assertEquals(201, retry.getStatus());
+		assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED));
+		assertEquals("application/json", retry.getContentType());
+		assertEquals(first.getContentAsString(), retry.getContentAsString());
+	}
+
+	@Test
+	public void testDistinctKeysExecuteEach() throws Exception {
+		send("key-1", "{\"rating\":5}");
+		send("key-2", "{\"rating\":5}");
+
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	public void testRequestsWithoutKeyAreNotTracked() throws Exception {
+		send(null, "{\"rating\":5}");
+		send(null, "{\"rating\":5}");
+
+		assertEquals(2, executions.get());
+		assertEquals(0, store.getMetrics().get("size").intValue());
+	}
+
+	@Test
+	public void testKeyReusedForAnotherBodyIsRejected() throws Exception {
+		send("key-1", "{\"rating\":5}");
+		MockHttpServletResponse reused = send("key-1", "{\"rating\":1}");
+
+		assertEquals(1, executions.get());
+		assertEquals(422, reused.getStatus());
+		assertTrue(reused.getContentAsString().contains("errors"));
+	}
+
+	@Test
+	public void testServerErrorsAreNotStored() throws Exception {
+		status = 500;
+		send("key-1", "{\"rating\":5}");
+		status = 201;
+		MockHttpServletResponse retry = send("key-1", "{\"rating\":5}");
+
+		assertEquals(2, executions.get());
+		assertEquals(201, retry.getStatus());
+		assertNull(retry.getHeader(IdempotencyFilter.REPLAYED));
+	}
+
+	@Test
+	public void testConcurrentDuplicateWaitsForTheFirstResponse() throws Exception {
+		gate = new CountDownLatch(1);
+		CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> sendQuietly("key-1"));
+		assertTrue(executing.await(5, TimeUnit.SECONDS));
+		CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> sendQuietly("key-1"));
+
+		// The duplicate registers as a waiter before the first request is released
+		long deadline = System.currentTimeMillis() + 5000;
+		while (store.getMetrics().get("waited").longValue() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		gate.countDown();
+
+		assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+		MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+		assertEquals(1, executions.get());
+		assertEquals(201, replayed.getStatus());
+		assertEquals("true", replayed.getHeader(IdempotencyFilter.REPLAYED));
+	}
+
+	@Test
+	public void testOldestKeysAreEvicted() throws Exception {
+		ReflectionTestUtils.setField(store, "maxEntries", 2);
+		send("key-1", "{\"rating\":5}");
+		send("key-2", "{\"rating\":5}");
+		send("key-3", "{\"rating\":5}");
+		send("key-1", "{\"rating\":5}");
+
+		assertEquals(4, executions.get());
+		assertEquals(2, store.getMetrics().get("size").intValue());
+	}
+
+	@Test
+	public void testAbandonKeepsTheEntryOfANewerOwner() {
+		ReflectionTestUtils.setField(store, "maxEntries", 1);
+		IdempotencyStore.Registration first = store.begin("key-1", "a");
+		store.begin("key-2", "a");
+		IdempotencyStore.Registration second = store.begin("key-1", "a");
+		assertTrue(first.owner() && second.owner());
+
+		// The first owner fails after its entry was evicted and the key registered again
+		store.abandon("key-1", first.entry());
+		assertNull(first.entry().getResponse().join());
+		assertEquals(0, store.getMetrics().get("abandoned").intValue());
+		assertEquals(1, store.getMetrics().get("size").intValue());
+
+		store.abandon("key-1", second.entry());
+		assertEquals(1, store.getMetrics().get("abandoned").intValue());
+		assertEquals(0, store.getMetrics().get("size").intValue());
+	}
+
+	private MockHttpServletResponse send(String key, String body) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/authenticated/review/write/1");
+		request.setServletPath("/authenticated/review/write/1");
+		request.setContentType("application/json");
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		if (key != null) {
+			request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+	private MockHttpServletResponse sendQuietly(String key) {
+		try {
+			return send(key, "{\"rating\":5}");
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.bookstore.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bookstore.events.UserChangedEvent;
+import com.bookstore.services.UserDetailsImpl;
+
+public class PrincipalCacheTest {
+
+	private PrincipalCache cache;
+
+	// Number of principals loaded from the "database"
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private final Function<String, UserDetails> loader = username -> {
+		loads.incrementAndGet();
+		return new UserDetailsImpl((long) username.length(), username, "hash", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+	};
+
+	@BeforeEach
+	public void setUp() {
+		cache = new PrincipalCache();
+		ReflectionTestUtils.setField(cache, "maxEntries", 2);
+		ReflectionTestUtils.setField(cache, "ttlMs", 60000L);
+	}
+
+	@Test
+	public void testRepeatedRequestsLoadThePrincipalOnce() {
+		UserDetails first = cache.get("alice", loader);
+		for (int i = 0; i < 9; i++) {
+			assertSame(first, cache.get("alice", loader));
+		}
+
+		assertEquals(1, loads.get());
+		assertEquals(0.9, cache.getMetrics().get("hit-rate").doubleValue(), 1e-9);
+	}
+
+	@Test
+	public void testChangedUserIsLoadedAgain() {
+		cache.get("alice", loader);
+		cache.onUserChanged(new UserChangedEvent("alice"));
+		cache.get("alice", loader);
+
+		assertEquals(2, loads.get());
+		assertEquals(1L, cache.getMetrics().get("invalidations"));
+	}
+
+	@Test
+	public void testPrincipalLoadedAcrossAChangeIsNotCached() {
+		cache.get("alice", username -> {
+			cache.onUserChanged(new UserChangedEvent(username)); // committed while loading
+			return loader.apply(username);
+		});
+		cache.get("alice", loader);
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedPrincipalIsEvicted() {
+		cache.get("alice", loader);
+		cache.get("bob", loader);
+		cache.get("alice", loader);
+		cache.get("carol", loader); // evicts bob
+		cache.get("alice", loader);
+		cache.get("bob", loader);
+
+		assertEquals(4, loads.get());
+		assertEquals(2, cache.getMetrics().get("size").intValue());
+	}
+
+	@Test
+	public void testZeroTtlDisablesTheCache() {
+		ReflectionTestUtils.setField(cache, "ttlMs", 0L);
+		cache.get("alice", loader);
+		cache.get("alice", loader);
+
+		assertEquals(2, loads.get());
+	}
+}
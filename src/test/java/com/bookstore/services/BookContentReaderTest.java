@@ -0,0 +1,133 @@
+package com.bookstore.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bookstore.entity.Book;
+import com.bookstore.entity.BookContent;
+import com.bookstore.entity.UserEntity;
+import com.bookstore.exceptions.BookNotFoundException;
+import com.bookstore.helpers.ContentCodec;
+import com.bookstore.repository.BookContentRepository;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@Transactional // every test rolls back its seeded books
+public class BookContentReaderTest {
+
+	// Book ID reserved for this test class
+	private static final int BOOK_ID = 9100;
+
+	@Autowired
+	private BookContentReader reader;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private BookContentRepository bookContentRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private byte[] utf8;
+
+	@BeforeEach
+	public void setUp() {
+		// About four compressed blocks of text with multi-byte characters
+		Random random = new Random(7);
+		StringBuilder text = new StringBuilder();
+		while (text.length() < 4 * ContentCodec.BLOCK_SIZE) {
+			text.append(random.nextInt(1000)).append(random.nextBoolean() ? " café " : " naïve ");
+		}
+		utf8 = text.toString().getBytes(StandardCharsets.UTF_8);
+
+		UserEntity author = userRepository.findByUsername("readerauthor")
+			.orElseGet(() -> userRepository.save(new UserEntity("readerauthor", "1234567")));
+		Book book = new Book();
+		book.setBookId(BOOK_ID);
+		book.setTitle("Streamed Book");
+		book.setAuthor(author);
+		book = bookRepository.save(book);
+		bookContentRepository.save(new BookContent(book, text.toString()));
+		entityManager.flush();
+	}
+
+	@Test
+	void copy_shouldWriteWholeContent() throws Exception {
+		BookContentReader.StoredContent content = reader.open(BOOK_ID);
+
+		assertEquals(utf8.length, content.getLength());
+		assertArrayEquals(utf8, read(content, 0, utf8.length - 1));
+	}
+
+	@Test
+	void copy_shouldWriteRangesAcrossBlocks() throws Exception {
+		BookContentReader.StoredContent content = reader.open(BOOK_ID);
+		int boundary = ContentCodec.BLOCK_SIZE;
+
+		assertArrayEquals(slice(boundary - 10, boundary + 10), read(content, boundary - 10, boundary + 10));
+		assertArrayEquals(slice(boundary, 3 * boundary + 1), read(content, boundary, 3 * boundary + 1));
+		assertArrayEquals(slice(utf8.length - 5, utf8.length - 1), read(content, utf8.length - 5, utf8.length - 1));
+	}
+
+	@Test
+	void copy_shouldReadOneBlockPerQuery_whenChunkIsSmall() throws Exception {
+		ReflectionTestUtils.setField(reader, "readChunkBytes", 1024);
+		try {
+			BookContentReader.StoredContent content = reader.open(BOOK_ID);
+			assertArrayEquals(utf8, read(content, 0, utf8.length - 1));
+		} finally {
+			ReflectionTestUtils.setField(reader, "readChunkBytes", 262144);
+		}
+	}
+
+	@Test
+	void copy_shouldReadLegacyPlainTextRows() throws Exception {
+		byte[] legacy = "Written before compression".getBytes(StandardCharsets.UTF_8);
+		jdbcTemplate.update("UPDATE book_content SET content = ? WHERE book_id = ?", legacy, BOOK_ID);
+
+		BookContentReader.StoredContent content = reader.open(BOOK_ID);
+
+		assertEquals(legacy.length, content.getLength());
+		assertArrayEquals("before".getBytes(StandardCharsets.UTF_8), read(content, 8, 13));
+	}
+
+	@Test
+	void open_shouldThrow_whenBookHasNoContent() {
+		assertThrows(BookNotFoundException.class, () -> reader.open(BOOK_ID + 1));
+	}
+
+	private byte[] read(BookContentReader.StoredContent content, long start, long end) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		reader.copy(content, start, end, out);
+		return out.toByteArray();
+	}
+
+	private byte[] slice(int start, int end) {
+		return Arrays.copyOfRange(utf8, start, end + 1);
+	}
+}
@@ -0,0 +1,158 @@
+package com.bookstore.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bookstore.entity.Book;
+import com.bookstore.entity.BookContent;
+import com.bookstore.entity.Review;
+import com.bookstore.entity.UserEntity;
+import com.bookstore.payload.response.BookSummaryResponse;
+import com.bookstore.repository.BookContentRepository;
+import com.bookstore.repository.BookContentStampView;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookRevisionView;
+import com.bookstore.repository.ReviewRepository;
+import com.bookstore.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional // every test rolls back its seeded books and reviews
+public class BookServiceTest {
+
+	// Book IDs reserved for this test class
+	private static final int FIRST_BOOK_ID = 9000;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private BookContentRepository bookContentRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private UserEntity author;
+
+	@BeforeEach
+	public void setUp() {
+		author = findOrCreateUser("statsauthor");
+	}
+
+	/**
+	 * A page of book summaries is a single SQL statement whatever the page
+	 * size, and never reads the content table.
+	 */
+	@Test
+	void getBooksAfter_shouldUseOneStatement_whenPageSizeGrows() {
+		seedBooks(30, 3);
+
+		assertEquals(1, countStatementsForPage(5));
+		assertEquals(1, countStatementsForPage(30));
+	}
+
+	@Test
+	void getBooksAfter_shouldReturnSummariesWithRatingAggregates() {
+		seedBooks(4, 2);
+		bookRepository.recomputeRatingAggregates();
+		entityManager.clear();
+
+		List<BookSummaryResponse> books = bookService.getBooksAfter(FIRST_BOOK_ID - 1, 4).getContent();
+
+		assertEquals(4, books.size());
+		for (BookSummaryResponse book : books) {
+			assertEquals("statsauthor", book.getAuthorUsername());
+			assertEquals(2, book.getReviewCount());
+		}
+	}
+
+	@Test
+	void addRating_shouldBumpReviewRevision() {
+		seedBooks(1, 0);
+		LocalDateTime reviewedAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+		bookRepository.addRating(FIRST_BOOK_ID, 4, reviewedAt);
+		bookRepository.addRating(FIRST_BOOK_ID, 2, reviewedAt);
+
+		BookRevisionView revision = bookRepository.findRevisionById(FIRST_BOOK_ID).orElseThrow();
+		assertEquals(2, revision.getRevision());
+		assertEquals(reviewedAt, revision.getLastModified());
+	}
+
+	@Test
+	void findStampsAfter_shouldReadStorageTimeAndSize_withoutContent() {
+		seedBooks(3, 0);
+
+		List<BookContentStampView> stamps = bookContentRepository.findStampsAfter(FIRST_BOOK_ID,
+			PageRequest.of(0, 10));
+		assertEquals(FIRST_BOOK_ID + 1, stamps.get(0).getBookId());
+		assertEquals(FIRST_BOOK_ID + 2, stamps.get(1).getBookId());
+		assertEquals(bookContentRepository.findById(FIRST_BOOK_ID + 1).orElseThrow().getStoredAt(),
+			stamps.get(0).getStoredAt());
+		assertTrue(stamps.get(0).getStoredBytes() > 0);
+	}
+
+	private long countStatementsForPage(int size) {
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		List<BookSummaryResponse> books = bookService.getBooksAfter(FIRST_BOOK_ID - 1, size).getContent();
+		assertEquals(size, books.size());
+
+		return statistics.getPrepareStatementCount();
+	}
+
+	private void seedBooks(int bookCount, int reviewsPerBook) {
+		for (int i = 0; i < bookCount; i++) {
+			Book book = new Book();
+			book.setBookId(FIRST_BOOK_ID + i);
+			book.setTitle("Statistics Book " + i);
+			book.setAuthor(author);
+			book = bookRepository.save(book);
+			bookContentRepository.save(new BookContent(book, "Content " + i));
+
+			for (int r = 0; r < reviewsPerBook; r++) {
+				Review review = new Review();
+				review.setBook(book);
+				review.setReviewer(findOrCreateUser("statsreviewer" + r)); // a reviewer reviews a book once
+				review.setRating(1 + (i + r) % 5);
+				review.setComment("Review " + r);
+				reviewRepository.save(review);
+			}
+		}
+	}
+
+	private UserEntity findOrCreateUser(String username) {
+		return userRepository.findByUsername(username)
+			.orElseGet(() -> userRepository.save(new UserEntity(username, "1234567")));
+	}
+}
@@ -0,0 +1,38 @@
+package com.bookstore.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.bookstore.events.BookDeletedEvent;
+import com.bookstore.events.ReviewSavedEvent;
+import com.bookstore.payload.response.BookSummaryResponse;
+
+public class CatalogVersionTest {
+
+	@Test
+	void getETag_shouldStayTheSame_whileNothingChanges() {
+		CatalogVersion version = new CatalogVersion();
+
+		assertEquals(version.getETag(), version.getETag());
+		assertTrue(version.getETag().startsWith("\"") && version.getETag().endsWith("\""));
+	}
+
+	@Test
+	void getETag_shouldChange_onEveryCommittedChange() {
+		CatalogVersion version = new CatalogVersion();
+		String initial = version.getETag();
+
+		version.onReviewSaved(new ReviewSavedEvent(
+			new BookSummaryResponse(1, "Title", "author", 4.0, 1), 1, LocalDateTime.now()));
+		String reviewed = version.getETag();
+		version.onBookDeleted(new BookDeletedEvent(1));
+
+		assertNotEquals(initial, reviewed);
+		assertNotEquals(reviewed, version.getETag());
+	}
+}
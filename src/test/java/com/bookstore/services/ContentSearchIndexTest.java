@@ -0,0 +1,209 @@
+package com.bookstore.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bookstore.repository.BookContentRepository;
+import com.bookstore.repository.BookContentStampView;
+import com.bookstore.repository.BookContentView;
+import com.bookstore.search.SearchHit;
+
+public class ContentSearchIndexTest {
+
+	private static final LocalDateTime STORED = LocalDateTime.of(2024, 1, 1, 12, 0);
+	private static final long STORED_AT = ContentSearchIndex.stamp(STORED);
+
+	@TempDir
+	Path directory;
+
+	private ContentSearchIndex index;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		index = newIndex();
+		index.indexNow(1, "The whale swam across the ocean, and the whale sang.", STORED_AT);
+		index.indexNow(2, "A small boat crossed the ocean at night.", STORED_AT);
+		index.indexNow(3, "Mountains and valleys under a quiet sky.", STORED_AT);
+	}
+
+	@Test
+	void search_shouldRankByBm25() throws IOException {
+		assertEquals(List.of(1), ids(index.search("whale", 10)));
+		assertEquals(List.of(1, 2), ids(index.search("WHALE ocean", 10)));
+		assertEquals(List.of(), ids(index.search("desert", 10)));
+	}
+
+	@Test
+	void search_shouldGiveSameResults_beforeAndAfterFlush() throws IOException {
+		List<SearchHit> buffered = index.search("the ocean", 10);
+		index.flushNow();
+
+		List<SearchHit> flushed = index.search("the ocean", 10);
+		assertEquals(ids(buffered), ids(flushed));
+		assertEquals(buffered.get(0).getScore(), flushed.get(0).getScore(), 1e-9);
+		assertEquals(1, index.getSegmentCount());
+	}
+
+	@Test
+	void indexNow_shouldHidePreviousVersion_storedInSegment() throws IOException {
+		index.flushNow();
+		index.indexNow(1, "A story about the desert.", STORED_AT);
+
+		assertEquals(List.of(2), ids(index.search("ocean", 10)));
+		assertEquals(List.of(1), ids(index.search("desert", 10)));
+	}
+
+	@Test
+	void deleteNow_shouldRemoveBook_fromBufferAndSegments() throws IOException {
+		index.flushNow();
+		index.indexNow(4, "Another ocean voyage.", STORED_AT);
+		index.deleteNow(2);
+		index.deleteNow(4);
+
+		assertEquals(List.of(1), ids(index.search("ocean", 10)));
+	}
+
+	@Test
+	void mergeNow_shouldFoldSegments_andDropDeadBooks() throws IOException {
+		index.flushNow();
+		index.indexNow(2, "A large ship crossed the sea.", STORED_AT);
+		index.indexNow(4, "Ocean currents and tides.", STORED_AT);
+		index.flushNow();
+		index.deleteNow(3);
+
+		assertTrue(index.mergeNow());
+		assertEquals(1, index.getSegmentCount());
+		assertEquals(1, segmentFiles());
+		assertEquals(List.of(4, 1), ids(index.search("ocean", 10)));
+		assertEquals(List.of(2), ids(index.search("ship", 10)));
+		assertEquals(List.of(), ids(index.search("mountains", 10)));
+	}
+
+	@Test
+	void open_shouldReopenSegments_withDeletionsOfPreviousRun() throws IOException {
+		index.flushNow();
+		index.deleteNow(2);
+		index.flushNow();
+
+		ContentSearchIndex reopened = newIndex();
+		assertEquals(1, reopened.getSegmentCount());
+		assertEquals(List.of(1), ids(reopened.search("ocean", 10)));
+		assertEquals(List.of(3), ids(reopened.search("mountains", 10)));
+	}
+
+	@Test
+	void open_shouldReopenMergedSegment_withLiveVersions() throws IOException {
+		index.flushNow();
+		index.indexNow(2, "A large ship crossed the sea.", STORED_AT);
+		index.flushNow();
+		assertTrue(index.mergeNow());
+
+		ContentSearchIndex reopened = newIndex();
+		assertEquals(1, reopened.getSegmentCount());
+		assertEquals(List.of(1), ids(reopened.search("ocean", 10)));
+		assertEquals(List.of(2), ids(reopened.search("ship", 10)));
+	}
+
+	@Test
+	void open_shouldDeleteSegments_notInManifest() throws IOException {
+		index.flushNow();
+		Files.delete(directory.resolve("index.manifest"));
+
+		// Without a manifest the deletions are unknown, reusing the segment could bring a book back
+		ContentSearchIndex reopened = newIndex();
+		assertEquals(0, segmentFiles());
+		assertEquals(List.of(), ids(reopened.search("ocean", 10)));
+	}
+
+	@Test
+	void syncNow_shouldLoadOnlyChangedBooks_andDropDeletedOnes() throws IOException {
+		index.flushNow();
+		BookContentRepository repository = mock(BookContentRepository.class);
+		// Book 1 is unchanged, 2 was deleted, 3 was changed and 4 is new
+		when(repository.findStampsAfter(eq(Integer.MIN_VALUE), any())).thenReturn(List.of(
+			stamp(1, STORED), stamp(3, STORED.plusMinutes(1)), stamp(4, STORED)));
+		when(repository.findContentByBookIdIn(Set.of(3, 4))).thenReturn(List.of(
+			content(3, "Mountains above the ocean."), content(4, "Ocean currents and tides.")));
+		ReflectionTestUtils.setField(index, "bookContentRepository", repository);
+		ReflectionTestUtils.setField(index, "syncBatchBytes", 1L << 20);
+
+		index.syncNow();
+
+		verify(repository).findContentByBookIdIn(Set.of(3, 4));
+		assertEquals(Set.of(1, 3, 4), Set.copyOf(ids(index.search("ocean", 10))));
+		assertEquals(List.of(), ids(index.search("boat", 10)));
+		assertEquals(List.of(3), ids(index.search("mountains", 10)));
+		assertEquals(Set.of(1, 3, 4), Set.copyOf(ids(newIndex().search("ocean", 10))));
+	}
+
+	private ContentSearchIndex newIndex() throws IOException {
+		ContentSearchIndex created = new ContentSearchIndex();
+		ReflectionTestUtils.setField(created, "indexDir", directory.toString());
+		ReflectionTestUtils.setField(created, "flushPostings", 1000);
+		ReflectionTestUtils.setField(created, "mergeFactor", 2);
+		created.open();
+		return created;
+	}
+
+	private long segmentFiles() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> file.toString().endsWith(".seg")).count();
+		}
+	}
+
+	private static BookContentStampView stamp(int bookId, LocalDateTime storedAt) {
+		return new BookContentStampView() {
+			@Override
+			public Integer getBookId() {
+				return bookId;
+			}
+
+			@Override
+			public LocalDateTime getStoredAt() {
+				return storedAt;
+			}
+
+			@Override
+			public long getStoredBytes() {
+				return 100;
+			}
+		};
+	}
+
+	private static BookContentView content(int bookId, String content) {
+		return new BookContentView() {
+			@Override
+			public Integer getBookId() {
+				return bookId;
+			}
+
+			@Override
+			public String getContent() {
+				return content;
+			}
+		};
+	}
+
+	private static List<Integer> ids(List<SearchHit> hits) {
+		return hits.stream().map(SearchHit::getBookId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,53 @@
+package com.bookstore.services;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+/**
+ * Transport recording the digests it is handed, for tests and benchmarks.
+ */
+public class FakeNotificationTransport implements NotificationTransport {
+
+	private final List<Sent> sent = new CopyOnWriteArrayList<>();
+
+	// Authors whose digests fail
+	private volatile Predicate<String> failing = authorEmail -> false;
+
+	// Whether sends never complete, as with a stalled mail server
+	private volatile boolean stalled;
+
+	@Override
+	public CompletableFuture<Void> send(String authorEmail, String bookTitle, int reviewCount) {
+		if (stalled) {
+			return new CompletableFuture<>();
+		}
+		if (failing.test(authorEmail)) {
+			return CompletableFuture.failedFuture(new IllegalStateException("Delivery to " + authorEmail + " failed"));
+		}
+		sent.add(new Sent(authorEmail, bookTitle, reviewCount));
+		return CompletableFuture.completedFuture(null);
+	}
+
+	public List<Sent> getSent() {
+		return sent;
+	}
+
+	public void failWhen(Predicate<String> failing) {
+		this.failing = failing;
+	}
+
+	public void stall(boolean stalled) {
+		this.stalled = stalled;
+	}
+
+	public void reset() {
+		sent.clear();
+		failing = authorEmail -> false;
+		stalled = false;
+	}
+
+	public record Sent(String authorEmail, String bookTitle, int reviewCount) {
+	}
+}
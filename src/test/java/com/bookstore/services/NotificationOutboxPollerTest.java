@@ -0,0 +1,207 @@
+package com.bookstore.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstore.entity.DeadLetterNotification;
+import com.bookstore.entity.NotificationOutbox;
+import com.bookstore.repository.DeadLetterNotificationRepository;
+import com.bookstore.repository.NotificationOutboxRepository;
+import com.bookstore.services.FakeNotificationTransport.Sent;
+
+// An own database, as the pollers of the other cached test contexts would deliver these rows too,
+// and the background poll pushed out of the way so the outbox is polled by hand
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1",
+	"spring.datasource.driver-class-name=org.h2.Driver",
+	"spring.datasource.username=sa",
+	"spring.datasource.password=",
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"notification.outbox.poll-interval-ms=3600000" })
+public class NotificationOutboxPollerTest {
+
+	@TestConfiguration
+	static class FakeTransportConfiguration {
+		@Bean
+		@Primary
+		FakeNotificationTransport fakeNotificationTransport() {
+			return new FakeNotificationTransport();
+		}
+	}
+
+	@Autowired
+	private NotificationOutboxPoller poller;
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepository;
+
+	@Autowired
+	private DeadLetterNotificationRepository deadLetterRepository;
+
+	@Autowired
+	private NotificationRetryPolicy retryPolicy;
+
+	@Autowired
+	private FakeNotificationTransport transport;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	public void setUp() {
+		outboxRepository.deleteAllInBatch();
+		deadLetterRepository.deleteAllInBatch();
+		transport.reset();
+		ReflectionTestUtils.setField(poller, "batchSize", 100);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		outboxRepository.deleteAllInBatch();
+		deadLetterRepository.deleteAllInBatch();
+		transport.reset();
+		ReflectionTestUtils.setField(poller, "leaseMs", 60000L);
+		ReflectionTestUtils.setField(retryPolicy, "baseDelayMs", 1000L);
+		ReflectionTestUtils.setField(retryPolicy, "maxAttempts", 6);
+	}
+
+	@Test
+	public void testDrainDeliversEveryDueNotificationOldestFirst() {
+		enqueue(250, "author@example.com", 0);
+
+		assertEquals(250, poller.drain());
+
+		assertEquals(0, outboxRepository.count());
+		List<Sent> sent = transport.getSent();
+		assertEquals(250, sent.size());
+		for (int i = 0; i < sent.size(); i++) {
+			assertEquals("Book " + i, sent.get(i).bookTitle());
+		}
+	}
+
+	@Test
+	public void testPollDeliversOneBatch() {
+		enqueue(150, "author@example.com", 0);
+
+		assertEquals(100, poller.pollOnce());
+		assertEquals(50, outboxRepository.count());
+	}
+
+	@Test
+	public void testNotificationsWaitForTheirDigestWindow() {
+		enqueue(3, "author@example.com", 60000);
+
+		assertEquals(0, poller.drain());
+		assertEquals(3, outboxRepository.count());
+		assertTrue(transport.getSent().isEmpty());
+	}
+
+	@Test
+	public void testNotificationsOfABookAreSentAsOneDigest() {
+		LocalDateTime now = LocalDateTime.now();
+		transactionTemplate.executeWithoutResult(status -> outboxRepository.saveAll(List.of(
+			new NotificationOutbox(1, "author@example.com", "Book 1", 2, now.minusMinutes(2), now.minusMinutes(1)),
+			new NotificationOutbox(1, "author@example.com", "Book 1", 1, now.minusMinutes(1), now),
+			new NotificationOutbox(1, "author@example.com", "Book 1", 3, now, now.plusMinutes(1)),
+			new NotificationOutbox(2, "author@example.com", "Book 2", 1, now, now.plusMinutes(1)))));
+
+		assertEquals(3, poller.drain());
+
+		assertEquals(List.of(new Sent("author@example.com", "Book 1", 6)), transport.getSent());
+		List<NotificationOutbox> left = outboxRepository.findAll();
+		assertEquals(1, left.size());
+		assertEquals(2, left.get(0).getBookId());
+	}
+
+	@Test
+	public void testFailedDigestIsSentAgainAfterBackoff() throws InterruptedException {
+		ReflectionTestUtils.setField(retryPolicy, "baseDelayMs", 200L);
+		enqueue(3, "author@example.com", 0);
+		enqueue(2, "down@example.com", 0);
+		transport.failWhen(authorEmail -> authorEmail.equals("down@example.com"));
+
+		assertEquals(3, poller.drain());
+
+		List<NotificationOutbox> left = outboxRepository.findAll();
+		assertEquals(2, left.size());
+		left.forEach(notification -> {
+			assertEquals(1, notification.getAttempts());
+			assertTrue(notification.getNextAttemptAt().isAfter(LocalDateTime.now()));
+		});
+
+		// Not due again before its backoff, even once the transport recovered
+		transport.failWhen(authorEmail -> false);
+		assertEquals(0, poller.drain());
+
+		Thread.sleep(250);
+		assertEquals(2, poller.drain());
+		assertEquals(0, outboxRepository.count());
+	}
+
+	@Test
+	public void testDigestBecomesADeadLetterAfterMaxAttempts() throws InterruptedException {
+		ReflectionTestUtils.setField(retryPolicy, "baseDelayMs", 1L);
+		ReflectionTestUtils.setField(retryPolicy, "maxAttempts", 2);
+		enqueue(1, "down@example.com", 0);
+		transport.failWhen(authorEmail -> true);
+
+		assertEquals(0, poller.drain());
+		assertEquals(1, outboxRepository.count());
+
+		Thread.sleep(10);
+		assertEquals(0, poller.drain());
+
+		assertEquals(0, outboxRepository.count());
+		List<DeadLetterNotification> deadLetters = deadLetterRepository.findAll();
+		assertEquals(1, deadLetters.size());
+		assertEquals("down@example.com", deadLetters.get(0).getAuthorEmail());
+		assertEquals(2, deadLetters.get(0).getAttempts());
+	}
+
+	@Test
+	public void testStalledDigestIsSentAgainOnceItsLeaseEnds() throws InterruptedException {
+		ReflectionTestUtils.setField(poller, "leaseMs", 400L);
+		enqueue(1, "author@example.com", 0);
+		transport.stall(true);
+
+		assertEquals(0, poller.drain());
+		assertEquals(1, outboxRepository.count());
+
+		transport.stall(false);
+		assertEquals(0, poller.drain());
+
+		Thread.sleep(300);
+		assertEquals(1, poller.drain());
+		assertEquals(0, outboxRepository.count());
+	}
+
+	// Notifications due after the given delay, each of its own book
+	private void enqueue(int count, String authorEmail, long dueInMs) {
+		transactionTemplate.executeWithoutResult(status -> {
+			List<NotificationOutbox> notifications = new ArrayList<>();
+			long existing = outboxRepository.count();
+			LocalDateTime now = LocalDateTime.now();
+			for (int i = 0; i < count; i++) {
+				notifications.add(new NotificationOutbox((int) existing + i, authorEmail, "Book " + i, 1, now,
+					now.plus(dueInMs, ChronoUnit.MILLIS)));
+			}
+			outboxRepository.saveAll(notifications);
+		});
+	}
+}
@@ -0,0 +1,39 @@
+package com.bookstore.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class NotificationRetryPolicyTest {
+
+	private NotificationRetryPolicy policy;
+
+	@BeforeEach
+	public void setUp() {
+		policy = new NotificationRetryPolicy();
+		ReflectionTestUtils.setField(policy, "baseDelayMs", 20L);
+		ReflectionTestUtils.setField(policy, "maxDelayMs", 1000L);
+		ReflectionTestUtils.setField(policy, "maxAttempts", 3);
+	}
+
+	@Test
+	public void testBackoffDoublesWithJitterUpToTheCap() {
+		for (int attempts = 1; attempts <= 10; attempts++) {
+			long delay = Math.min(1000, 20L << (attempts - 1));
+			for (int i = 0; i < 100; i++) {
+				long backoff = policy.backoffMs(attempts);
+				assertTrue(backoff >= delay / 2 && backoff <= delay, "attempt " + attempts + ": " + backoff);
+			}
+		}
+		assertTrue(policy.backoffMs(Integer.MAX_VALUE) <= 1000);
+	}
+
+	@Test
+	public void testNotificationIsGivenUpAfterMaxAttempts() {
+		assertFalse(policy.isExhausted(2));
+		assertTrue(policy.isExhausted(3));
+	}
+}
@@ -0,0 +1,118 @@
+package com.bookstore.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class NotificationServiceTest {
+
+	private NotificationService notificationService(int threads, int queueCapacity, String overflowPolicy, long sendDelayMs) {
+		NotificationService service = new NotificationService();
+		ReflectionTestUtils.setField(service, "threads", threads);
+		ReflectionTestUtils.setField(service, "queueCapacity", queueCapacity);
+		ReflectionTestUtils.setField(service, "overflowPolicy", overflowPolicy);
+		ReflectionTestUtils.setField(service, "shutdownTimeoutMs", 5000L);
+		ReflectionTestUtils.setField(service, "sendDelayMs", sendDelayMs);
+		service.start();
+		return service;
+	}
+
+	@Test
+	public void testBurstIsSentByABoundedNumberOfThreads() throws Exception {
+		NotificationService service = notificationService(4, 1000, NotificationService.DROP_NEWEST, 1);
+		int threadsBefore = Thread.activeCount();
+		for (int i = 0; i < 500; i++) {
+			service.send("author@example.com", "Book " + i, 1);
+		}
+		assertTrue(Thread.activeCount() - threadsBefore <= 4);
+
+		service.stop();
+		Map<String, Number> metrics = service.getMetrics();
+		assertEquals(500L, metrics.get("submitted"));
+		assertEquals(500L, metrics.get("sent"));
+		assertEquals(0L, metrics.get("dropped"));
+		assertEquals(0, metrics.get("queued").intValue());
+	}
+
+	@Test
+	public void testFullQueueDropsNewNotifications() throws Exception {
+		NotificationService service = notificationService(1, 2, NotificationService.DROP_NEWEST, 200);
+		for (int i = 0; i < 10; i++) {
+			service.send("author@example.com", "Book " + i, 1);
+		}
+
+		service.stop();
+		Map<String, Number> metrics = service.getMetrics();
+		// One notification is being sent and two are queued, the others overflow
+		assertEquals(3L, metrics.get("sent"));
+		assertEquals(7L, metrics.get("dropped"));
+	}
+
+	@Test
+	public void testFullQueueDropsOldestNotifications() throws Exception {
+		NotificationService service = notificationService(1, 2, NotificationService.DROP_OLDEST, 200);
+		for (int i = 0; i < 10; i++) {
+			service.send("author@example.com", "Book " + i, 1);
+		}
+
+		service.stop();
+		Map<String, Number> metrics = service.getMetrics();
+		assertEquals(3L, metrics.get("sent"));
+		assertEquals(7L, metrics.get("dropped"));
+	}
+
+	@Test
+	public void testCallerRunsSlowsTheCallerInsteadOfDropping() throws Exception {
+		NotificationService service = notificationService(1, 1, NotificationService.CALLER_RUNS, 50);
+		for (int i = 0; i < 6; i++) {
+			service.send("author@example.com", "Book " + i, 1);
+		}
+
+		service.stop();
+		Map<String, Number> metrics = service.getMetrics();
+		assertEquals(6L, metrics.get("sent"));
+		assertEquals(0L, metrics.get("dropped"));
+		assertTrue(metrics.get("caller-runs").longValue() > 0);
+	}
+
+	@Test
+	public void testShutdownDropsWhatCannotBeSentInTime() throws Exception {
+		NotificationService service = notificationService(1, 100, NotificationService.DROP_NEWEST, 500);
+		ReflectionTestUtils.setField(service, "shutdownTimeoutMs", 100L);
+		for (int i = 0; i < 10; i++) {
+			service.send("author@example.com", "Book " + i, 1);
+		}
+
+		service.stop();
+		CompletableFuture<Void> afterShutdown = service.send("author@example.com", "After shutdown", 1);
+		Map<String, Number> metrics = service.getMetrics();
+		assertEquals(0L, metrics.get("sent"));
+		assertEquals(1L, metrics.get("failed"));
+		assertEquals(10L, metrics.get("dropped"));
+		assertTrue(afterShutdown.isCompletedExceptionally());
+	}
+
+	@Test
+	public void testDroppedNotificationFailsItsFuture() throws Exception {
+		NotificationService service = notificationService(1, 1, NotificationService.DROP_NEWEST, 100);
+		CompletableFuture<Void> first = service.send("author@example.com", "Book 1", 1);
+		service.send("author@example.com", "Book 2", 1);
+		CompletableFuture<Void> overflow = service.send("author@example.com", "Book 3", 1);
+
+		ExecutionException dropped = assertThrows(ExecutionException.class, () -> overflow.get(1, TimeUnit.SECONDS));
+		assertInstanceOf(RejectedExecutionException.class, dropped.getCause());
+		first.get(1, TimeUnit.SECONDS);
+
+		service.stop();
+	}
+}
@@ -0,0 +1,303 @@
+package com.bookstore.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bookstore.entity.Book;
+import com.bookstore.entity.NotificationOutbox;
+import com.bookstore.entity.Review;
+import com.bookstore.entity.UserEntity;
+import com.bookstore.events.ReviewSavedEvent;
+import com.bookstore.exceptions.BookNotFoundException;
+import com.bookstore.exceptions.DuplicateReviewException;
+import com.bookstore.exceptions.InvalidInputException;
+import com.bookstore.payload.request.ReviewRequest;
+import com.bookstore.payload.response.BookSummaryResponse;
+import com.bookstore.payload.response.BulkReviewError;
+import com.bookstore.payload.response.BulkReviewResponse;
+import com.bookstore.payload.response.RatingHistogramResponse;
+import com.bookstore.payload.response.ReviewPageResponse;
+import com.bookstore.payload.response.ReviewResponse;
+import com.bookstore.repository.BookRatingHistogramRepository;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.NotificationOutboxRepository;
+import com.bookstore.repository.ReviewRepository;
+import com.bookstore.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@RecordApplicationEvents
+@Transactional // every test rolls back its seeded book and reviews
+public class ReviewServiceTest {
+
+	// Book ID reserved for this test class
+	private static final int BOOK_ID = 9200;
+
+	private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Autowired
+	private BookRatingHistogramRepository ratingHistogramRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepository;
+
+	@Autowired
+	private ReviewWriteBuffer reviewWriteBuffer;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private ApplicationEvents events;
+
+	private Book book;
+
+	private UserEntity reviewer;
+
+	// Reviews seeded so far, each by its own reviewer as a reviewer reviews a book once
+	private int seeded;
+
+	@BeforeEach
+	public void setUp() {
+		reviewer = userRepository.findByUsername("pagereviewer")
+			.orElseGet(() -> userRepository.save(new UserEntity("pagereviewer", "1234567")));
+		book = new Book();
+		book.setBookId(BOOK_ID);
+		book.setTitle("Paged Reviews");
+		book.setAuthor(reviewer);
+		book = bookRepository.save(book);
+	}
+
+	/**
+	 * Walking the cursors visits every review exactly once, newest first,
+	 * including reviews that share a timestamp.
+	 */
+	@Test
+	void getReviewsAfter_shouldVisitEveryReviewOnce() {
+		for (int i = 0; i < 11; i++) {
+			seedReview(START.plusMinutes(i / 2)); // pairs of reviews share a timestamp
+		}
+		entityManager.flush();
+
+		List<ReviewResponse> visited = new ArrayList<>();
+		String cursor = null;
+		do {
+			ReviewPageResponse page = reviewService.getReviewsAfter(BOOK_ID, cursor, 3);
+			assertTrue(page.getReviews().size() <= 3);
+			visited.addAll(page.getReviews());
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertEquals(11, visited.size());
+		assertEquals(11, visited.stream().map(ReviewResponse::getReviewId).distinct().count());
+		for (int i = 1; i < visited.size(); i++) {
+			assertTrue(!visited.get(i).getTimestamp().isAfter(visited.get(i - 1).getTimestamp()));
+		}
+		assertEquals("pagereviewer10", visited.get(0).getReviewerUsername());
+	}
+
+	@Test
+	void getReviewsAfter_shouldReturnNoCursor_onLastPage() {
+		seedReview(START);
+		entityManager.flush();
+
+		ReviewPageResponse page = reviewService.getReviewsAfter(BOOK_ID, null, 5);
+
+		assertEquals(1, page.getReviews().size());
+		assertNull(page.getNextCursor());
+	}
+
+	@Test
+	void getReviewsAfter_shouldRejectMalformedCursorAndSize() {
+		assertThrows(InvalidInputException.class, () -> reviewService.getReviewsAfter(BOOK_ID, "not-a-cursor", 5));
+		assertThrows(InvalidInputException.class, () -> reviewService.getReviewsAfter(BOOK_ID, null, 0));
+	}
+
+	@Test
+	void saveReviews_shouldSaveValidReviewsAndReportTheOthers() {
+		List<ReviewRequest> requests = new ArrayList<>();
+		for (int i = 0; i < 120; i++) { // spans several JDBC batches
+			requests.add(new ReviewRequest(BOOK_ID, reviewer(i).getUsername(), 1 + i % 5, "Imported " + i));
+		}
+		requests.add(new ReviewRequest(BOOK_ID, "pagereviewer", 6, "Out of range"));
+		requests.add(new ReviewRequest(BOOK_ID + 1, "pagereviewer", 3, "Unknown book"));
+		requests.add(new ReviewRequest(BOOK_ID, "nobody-here", 3, "Unknown reviewer"));
+		requests.add(new ReviewRequest(BOOK_ID, "pagereviewer", 3, " "));
+		requests.add(new ReviewRequest(BOOK_ID, "pagereviewer7", 3, "Reviewed twice in the batch"));
+
+		BulkReviewResponse response = reviewService.saveReviews(requests);
+
+		assertEquals(120, response.getSaved());
+		assertEquals(List.of(120, 121, 122, 123, 124),
+			response.getErrors().stream().map(BulkReviewError::getIndex).toList());
+		assertEquals(120, reviewRepository.findByBook_BookId(BOOK_ID).size());
+
+		BookSummaryResponse summary = bookRepository.findSummaryById(BOOK_ID).orElseThrow();
+		assertEquals(120, summary.getReviewCount());
+		assertEquals(3.0, summary.getAverageRating(), 1e-9);
+		assertEquals(1, bookRepository.findRevisionById(BOOK_ID).orElseThrow().getRevision());
+
+		// Listeners hear about the book once, not once per review
+		assertEquals(List.of(120), events.stream(ReviewSavedEvent.class).map(ReviewSavedEvent::getReviewCount).toList());
+	}
+
+	@Test
+	void saveReview_shouldCountRatingsInHistogram() {
+		int[] ratings = { 5, 5, 3, 1, 5, 4, 4 };
+		for (int i = 0; i < 3; i++) {
+			reviewService.saveReview(new ReviewRequest(BOOK_ID, reviewer(i).getUsername(), ratings[i], "Counted"));
+		}
+		List<ReviewRequest> requests = new ArrayList<>();
+		for (int i = 3; i < ratings.length; i++) {
+			requests.add(new ReviewRequest(BOOK_ID, reviewer(i).getUsername(), ratings[i], "Counted in bulk"));
+		}
+		reviewService.saveReviews(requests);
+
+		// Read the table itself: the cache is only invalidated by committed reviews
+		RatingHistogramResponse histogram = ratingHistogramRepository.findResponseById(BOOK_ID).orElseThrow();
+
+		assertEquals(new RatingHistogramResponse(BOOK_ID, 7, 1, 0, 1, 2, 3), histogram);
+	}
+
+	@Test
+	void saveReview_shouldRejectSecondReviewOfTheSameBook() {
+		reviewService.saveReview(new ReviewRequest(BOOK_ID, "pagereviewer", 4, "First"));
+
+		assertThrows(DuplicateReviewException.class,
+			() -> reviewService.saveReview(new ReviewRequest(BOOK_ID, "pagereviewer", 1, "Again")));
+		assertEquals(1, reviewRepository.findByBook_BookId(BOOK_ID).size());
+	}
+
+	@Test
+	void saveReview_shouldRejectUnknownBookOrReviewer_beforeQueueing() {
+		ReflectionTestUtils.setField(reviewWriteBuffer, "enabled", true);
+		ReflectionTestUtils.setField(reviewWriteBuffer, "durability", "fire-and-forget");
+		try {
+			assertThrows(BookNotFoundException.class,
+				() -> reviewService.saveReview(new ReviewRequest(BOOK_ID + 1, "pagereviewer", 4, "Lost")));
+			assertThrows(InvalidInputException.class,
+				() -> reviewService.saveReview(new ReviewRequest(BOOK_ID, "nosuchreviewer", 4, "Lost")));
+			assertEquals(0L, reviewWriteBuffer.getMetrics().get("submitted"));
+		} finally {
+			ReflectionTestUtils.setField(reviewWriteBuffer, "enabled", false);
+			ReflectionTestUtils.setField(reviewWriteBuffer, "durability", "wait");
+		}
+	}
+
+	@Test
+	void saveReviews_shouldRejectReviewsThatAlreadyExist() {
+		reviewService.saveReview(new ReviewRequest(BOOK_ID, "pagereviewer", 4, "First"));
+
+		BulkReviewResponse response = reviewService.saveReviews(List.of(
+			new ReviewRequest(BOOK_ID, "pagereviewer", 2, "Imported again"),
+			new ReviewRequest(BOOK_ID, reviewer(1).getUsername(), 5, "Imported")));
+
+		assertEquals(1, response.getSaved());
+		assertEquals(List.of(0), response.getErrors().stream().map(BulkReviewError::getIndex).toList());
+	}
+	@Test
+	void saveReview_shouldWriteNotificationsToTheOutbox() {
+		reviewService.saveReview(new ReviewRequest(BOOK_ID, reviewer(0).getUsername(), 4, "Notified"));
+		reviewService.saveReviews(List.of(
+			new ReviewRequest(BOOK_ID, reviewer(1).getUsername(), 5, "Notified in bulk"),
+			new ReviewRequest(BOOK_ID, reviewer(2).getUsername(), 3, "Notified in bulk"),
+			new ReviewRequest(BOOK_ID, reviewer(3).getUsername(), 2, "Notified in bulk")));
+
+		// One row per saved review, and one per book for the bulk path, rolled back with the test
+		List<Integer> reviewCounts = outboxRepository.findAll().stream()
+			.filter(notification -> notification.getBookId() == BOOK_ID)
+			.map(NotificationOutbox::getReviewCount)
+			.sorted()
+			.toList();
+		assertEquals(List.of(1, 3), reviewCounts);
+	}
+
+	@Test
+	void deleteBookByID_shouldDropPendingNotificationsOfTheBook() {
+		outboxRepository.save(new NotificationOutbox(BOOK_ID, "author@example.com", "Pending", 1, START, START));
+
+		bookService.deleteBookByID(BOOK_ID);
+
+		assertTrue(outboxRepository.findAll().stream().noneMatch(notification -> notification.getBookId() == BOOK_ID));
+	}
+
+	@Test
+	void getRatingHistogram_shouldReturnZeros_whenBookHasNoReviews() {
+		assertEquals(new RatingHistogramResponse(BOOK_ID, 0, 0, 0, 0, 0, 0), bookService.getRatingHistogram(BOOK_ID));
+		assertThrows(BookNotFoundException.class, () -> bookService.getRatingHistogram(BOOK_ID + 1));
+	}
+
+	@Test
+	void reviewTable_shouldHaveBookTimeIndex() {
+		List<String> columns = jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+			List<String> found = new ArrayList<>();
+			for (String table : List.of("review", "REVIEW")) { // stored case depends on the database
+				if (!found.isEmpty()) {
+					break;
+				}
+				try (ResultSet rs = connection.getMetaData().getIndexInfo(null, null, table, false, false)) {
+					while (rs.next()) {
+						if ("idx_review_book_time".equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+							found.add(rs.getString("COLUMN_NAME").toLowerCase());
+						}
+					}
+				}
+			}
+			return found;
+		});
+
+		assertEquals(List.of("book_id", "timestamp", "review_id"), columns);
+	}
+
+	private void seedReview(LocalDateTime timestamp) {
+		Review review = new Review();
+		review.setBook(book);
+		review.setReviewer(reviewer(seeded++));
+		review.setRating(4);
+		review.setComment("Paged");
+		review.setTimestamp(timestamp);
+		reviewRepository.save(review);
+	}
+
+	private UserEntity reviewer(int index) {
+		return userRepository.findByUsername("pagereviewer" + index)
+			.orElseGet(() -> userRepository.save(new UserEntity("pagereviewer" + index, "1234567")));
+	}
+}
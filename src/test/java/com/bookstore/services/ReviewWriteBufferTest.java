@@ -0,0 +1,185 @@
+package com.bookstore.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bookstore.exceptions.DuplicateReviewException;
+import com.bookstore.exceptions.ReviewQueueFullException;
+import com.bookstore.payload.request.ReviewRequest;
+import com.bookstore.payload.response.BulkReviewError;
+import com.bookstore.payload.response.BulkReviewResponse;
+
+public class ReviewWriteBufferTest {
+
+	// Reviews of this book were saved by someone else, e.g. a concurrent bulk import
+	private static final int REVIEWED_BOOK_ID = 500;
+
+	// A review of this book fails the commit of its whole batch
+	private static final int CONFLICTING_BOOK_ID = 600;
+
+	private ReviewWriteBuffer buffer;
+
+	private ReviewService reviewService;
+
+	// Sizes of the batches handed to the bulk path
+	private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+	// Holds the committer inside saveReviews until released
+	private volatile CountDownLatch gate = new CountDownLatch(0);
+
+	// Released once the committer is inside saveReviews
+	private final CountDownLatch committing = new CountDownLatch(1);
+
+	@BeforeEach
+	public void setUp() {
+		reviewService = mock(ReviewService.class);
+		when(reviewService.saveReviews(anyList())).thenAnswer(invocation -> {
+			committing.countDown();
+			gate.await();
+			List<ReviewRequest> requests = invocation.getArgument(0);
+			batchSizes.add(requests.size());
+			List<BulkReviewError> errors = new ArrayList<>();
+			for (int i = 0; i < requests.size(); i++) {
+				int bookId = requests.get(i).getBookId();
+				if (bookId == CONFLICTING_BOOK_ID) {
+					throw new DataIntegrityViolationException("uk_review_book_reviewer");
+				}
+				if (bookId == REVIEWED_BOOK_ID) {
+					errors.add(new BulkReviewError(i, BulkReviewError.Type.DUPLICATE, "Reviewer reader already reviewed the book"));
+				} else if (bookId < 0) {
+					errors.add(new BulkReviewError(i, BulkReviewError.Type.NOT_FOUND, "Book not found with id: " + bookId));
+				}
+			}
+			return new BulkReviewResponse(requests.size() - errors.size(), errors);
+		});
+		doThrow(new DuplicateReviewException("You have already reviewed the book with id: " + CONFLICTING_BOOK_ID))
+			.when(reviewService).commitReview(new ReviewRequest(CONFLICTING_BOOK_ID, "reader", 4, "Queued review"));
+
+		buffer = new ReviewWriteBuffer();
+		buffer.reviewService = reviewService;
+		ReflectionTestUtils.setField(buffer, "enabled", true);
+		ReflectionTestUtils.setField(buffer, "queueCapacity", 10);
+		ReflectionTestUtils.setField(buffer, "maxBatch", 4);
+		ReflectionTestUtils.setField(buffer, "flushIntervalMs", 200L);
+		buffer.start();
+	}
+
+	@AfterEach
+	public void tearDown() throws InterruptedException {
+		gate.countDown();
+		buffer.stop();
+	}
+
+	@Test
+	void submit_shouldCommitQueuedReviewsInBatches() throws Exception {
+		gate = new CountDownLatch(1);
+		List<CompletableFuture<Void>> results = new ArrayList<>();
+		for (int i = 0; i < 9; i++) {
+			results.add(buffer.submit(review(i)));
+		}
+		gate.countDown();
+
+		for (CompletableFuture<Void> result : results) {
+			result.get(5, TimeUnit.SECONDS);
+		}
+		assertEquals(9, batchSizes.stream().mapToInt(Integer::intValue).sum());
+		assertTrue(batchSizes.stream().allMatch(size -> size <= 4));
+		assertTrue(batchSizes.size() <= 4, "reviews should share transactions: " + batchSizes);
+	}
+
+	@Test
+	void submit_shouldFailOnlyTheRejectedReview() throws Exception {
+		CompletableFuture<Void> valid = buffer.submit(review(1));
+		CompletableFuture<Void> invalid = buffer.submit(review(-1));
+
+		valid.get(5, TimeUnit.SECONDS);
+		ExecutionException e = assertThrows(ExecutionException.class, () -> invalid.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(IllegalArgumentException.class, e.getCause());
+	}
+
+	@Test
+	void submit_shouldRejectRepeatedReview_whileTheFirstIsQueued() throws Exception {
+		gate = new CountDownLatch(1);
+		CompletableFuture<Void> first = buffer.submit(review(1));
+
+		assertThrows(DuplicateReviewException.class, () -> buffer.submit(review(1)));
+		gate.countDown();
+		first.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void submit_shouldFailWithDuplicateReview_whenTheBookWasReviewedElsewhere() {
+		CompletableFuture<Void> duplicate = buffer.submit(review(REVIEWED_BOOK_ID));
+
+		ExecutionException e = assertThrows(ExecutionException.class, () -> duplicate.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(DuplicateReviewException.class, e.getCause());
+	}
+
+	@Test
+	void submit_shouldCommitReviewsOneByOne_whenTheBatchFails() throws Exception {
+		gate = new CountDownLatch(1);
+		CompletableFuture<Void> valid = buffer.submit(review(1));
+		CompletableFuture<Void> conflicting = buffer.submit(review(CONFLICTING_BOOK_ID));
+		CompletableFuture<Void> other = buffer.submit(review(2));
+		gate.countDown();
+
+		valid.get(5, TimeUnit.SECONDS);
+		other.get(5, TimeUnit.SECONDS);
+		ExecutionException e = assertThrows(ExecutionException.class, () -> conflicting.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(DuplicateReviewException.class, e.getCause());
+		assertEquals(1L, buffer.getMetrics().get("split-batches"));
+	}
+
+	@Test
+	void submit_shouldRejectReviews_whenQueueIsFull() throws Exception {
+		gate = new CountDownLatch(1);
+		buffer.submit(review(0));
+		assertTrue(committing.await(5, TimeUnit.SECONDS)); // the committer is busy with the first review
+		for (int i = 1; i <= 10; i++) {
+			buffer.submit(review(i));
+		}
+
+		assertThrows(ReviewQueueFullException.class, () -> buffer.submit(review(11)));
+		assertEquals(1L, buffer.getMetrics().get("rejected"));
+	}
+
+	@Test
+	void stop_shouldCommitQueuedReviews() throws Exception {
+		List<CompletableFuture<Void>> results = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			results.add(buffer.submit(review(i)));
+		}
+
+		buffer.stop();
+
+		for (CompletableFuture<Void> result : results) {
+			assertTrue(result.isDone() && !result.isCompletedExceptionally());
+		}
+		assertThrows(ReviewQueueFullException.class, () -> buffer.submit(review(7)));
+	}
+
+	private ReviewRequest review(int bookId) {
+		return new ReviewRequest(bookId, "reader", 4, "Queued review");
+	}
+}
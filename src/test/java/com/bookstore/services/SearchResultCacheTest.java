@@ -0,0 +1,137 @@
+package com.bookstore.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bookstore.events.BookDeletedEvent;
+import com.bookstore.events.BookSavedEvent;
+import com.bookstore.events.ReviewSavedEvent;
+import com.bookstore.payload.response.BookSummaryResponse;
+
+public class SearchResultCacheTest {
+
+	private SearchResultCache cache;
+
+	private AtomicInteger loads;
+
+	@BeforeEach
+	public void setUp() {
+		cache = new SearchResultCache();
+		ReflectionTestUtils.setField(cache, "maxWeight", 100_000L);
+		ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+		loads = new AtomicInteger();
+	}
+
+	@Test
+	void get_shouldServeRepeatedKeywordsFromCache() {
+		search("Potter", 1);
+		search("  potter ", 1);
+
+		assertEquals(1, loads.get());
+		assertEquals(1L, cache.getMetrics().get("hits"));
+		assertEquals(1L, cache.getMetrics().get("misses"));
+	}
+
+	@Test
+	void onBookSaved_shouldOnlyDropKeywordsTheTitleMatches() {
+		search("potter", 1);
+		search("dune", 2);
+
+		cache.onBookSaved(new BookSavedEvent(summary(3, "Harry Potter and the Goblet of Fire"), "content", LocalDateTime.now()));
+		search("potter", 1);
+		search("dune", 2);
+
+		assertEquals(3, loads.get());
+		assertEquals(1L, cache.getMetrics().get("invalidations"));
+	}
+
+	@Test
+	void onBookDeletedAndReviewSaved_shouldDropResponsesListingTheBook() {
+		search("potter", 1);
+		search("dune", 2);
+
+		cache.onBookDeleted(new BookDeletedEvent(1));
+		cache.onReviewSaved(new ReviewSavedEvent(summary(2, "Dune"), 1, LocalDateTime.now()));
+		search("potter", 1);
+		search("dune", 2);
+
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	void get_shouldOnlySkipCaching_whenAChangeDuringTheLoadAffectsTheResult() {
+		// A review of another book commits while "potter" loads, one of the listed book while "dune" loads
+		cache.get("potter", () -> {
+			loads.incrementAndGet();
+			cache.onReviewSaved(new ReviewSavedEvent(summary(2, "Dune"), 1, LocalDateTime.now()));
+			return List.of(summary(1, "Harry Potter"));
+		});
+		cache.get("dune", () -> {
+			loads.incrementAndGet();
+			cache.onReviewSaved(new ReviewSavedEvent(summary(2, "Dune"), 1, LocalDateTime.now()));
+			return List.of(summary(2, "Dune"));
+		});
+		search("potter", 1);
+		search("dune", 2);
+
+		assertEquals(3, loads.get());
+		assertEquals(2, cache.getMetrics().get("size").intValue());
+	}
+
+	@Test
+	void get_shouldEvictLeastRecentlyUsed_whenOverWeight() {
+		ReflectionTestUtils.setField(cache, "maxWeight", 1_000L);
+		search("a", 1);
+		search("b", 2);
+		search("a", 1);
+		search("c", 3);
+
+		// "b" was the least recently used when "c" came in
+		search("a", 1);
+		search("b", 2);
+
+		assertEquals(4, loads.get());
+		assertEquals(2L, cache.getMetrics().get("evictions"));
+	}
+
+	@Test
+	void get_shouldReload_whenEntryExpired() {
+		ReflectionTestUtils.setField(cache, "ttlMs", 1L);
+		search("potter", 1);
+		sleep(5);
+		search("potter", 1);
+
+		assertEquals(2, loads.get());
+		assertEquals(1L, cache.getMetrics().get("expirations"));
+	}
+
+	private void search(String keyword, int bookId) {
+		cache.get(keyword, () -> {
+			loads.incrementAndGet();
+			// Roughly 400 bytes per response
+			List<BookSummaryResponse> books = new ArrayList<>();
+			books.add(new BookSummaryResponse(bookId, "Title " + bookId, "x".repeat(45), 0, 0));
+			return books;
+		});
+	}
+
+	private static BookSummaryResponse summary(int bookId, String title) {
+		return new BookSummaryResponse(bookId, title, "author", 0, 0);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
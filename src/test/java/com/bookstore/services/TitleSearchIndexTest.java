@@ -0,0 +1,62 @@
+package com.bookstore.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TitleSearchIndexTest {
+
+	private TitleSearchIndex index;
+
+	@BeforeEach
+	public void setUp() {
+		index = new TitleSearchIndex();
+		index.put(1, "Harry Potter and the Prisoner of Azkaban");
+		index.put(2, "The Prisoner");
+		index.put(3, "Prisoners   of War");
+		index.put(4, "Dune");
+		index.put(5, "Imprisoned");
+	}
+
+	@Test
+	void search_shouldMatchSubstringsCaseInsensitively() {
+		List<Integer> result = index.search("PRISON", 10);
+
+		assertEquals(4, result.size());
+		assertTrue(result.containsAll(List.of(1, 2, 3, 5)));
+	}
+
+	@Test
+	void search_shouldRankTitlePrefixAndWholeWordsFirst() {
+		assertEquals(List.of(3, 2, 1), index.search("prisoner", 10));
+		assertEquals(List.of(2, 1), index.search("the prisoner", 10));
+	}
+
+	@Test
+	void search_shouldMatchSubstrings_whenKeywordIsShort() {
+		assertEquals(List.of(4), index.search("du", 10));
+		assertEquals(List.of(3, 1), index.search("of", 10));
+		// Inside a word, as the LIKE query used before the index is ready
+		assertEquals(List.of(5), index.search("ed", 10));
+		assertEquals(List.of(4), index.search("un", 10));
+	}
+
+	@Test
+	void search_shouldCapResults() {
+		assertEquals(List.of(3, 2), index.search("prisoner", 2));
+	}
+
+	@Test
+	void put_shouldReplacePreviousTitle() {
+		index.put(4, "Dune Messiah");
+		index.put(2, "Something Else");
+
+		assertEquals(List.of(4), index.search("messiah", 10));
+		assertEquals(List.of(3, 1), index.search("prisoner", 10));
+		assertEquals(List.of(1), index.search("the prisoner", 10));
+	}
+}
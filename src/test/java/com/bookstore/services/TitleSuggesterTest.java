@@ -0,0 +1,80 @@
+package com.bookstore.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bookstore.events.BookDeletedEvent;
+import com.bookstore.payload.response.BookSummaryResponse;
+
+public class TitleSuggesterTest {
+
+	private TitleSuggester suggester;
+
+	@BeforeEach
+	public void setUp() {
+		suggester = new TitleSuggester();
+		ReflectionTestUtils.setField(suggester, "topN", 3);
+		suggester.put(book(1, "Harry Potter and the Chamber of Secrets", 4.0, 10));
+		suggester.put(book(2, "Harry Potter and the Prisoner of Azkaban", 4.8, 20));
+		suggester.put(book(3, "Hard Times", 3.5, 5));
+		suggester.put(book(4, "Harbor Lights", 4.2, 7));
+		suggester.put(book(5, "Dune", 4.5, 30));
+	}
+
+	@Test
+	void suggest_shouldReturnPrefixMatches_bestRatedFirst() {
+		assertEquals(List.of(2, 4, 1), ids(suggester.suggest("HAR", 10)));
+		assertEquals(List.of(2, 1), ids(suggester.suggest("harry potter", 10)));
+		assertEquals(List.of(3), ids(suggester.suggest("hard", 10)));
+		assertEquals(List.of(5), ids(suggester.suggest("dune", 10)));
+	}
+
+	@Test
+	void suggest_shouldMatchInsideCompressedEdges() {
+		assertEquals(List.of(2), ids(suggester.suggest("harry potter and the p", 10)));
+		assertTrue(suggester.suggest("harry potter x", 10).isEmpty());
+		assertTrue(suggester.suggest("dunes", 10).isEmpty());
+	}
+
+	@Test
+	void suggest_shouldCapAtLimit() {
+		assertEquals(List.of(2), ids(suggester.suggest("h", 1)));
+		assertEquals(List.of(2, 4), ids(suggester.suggest("h", 2)));
+	}
+
+	@Test
+	void put_shouldRerank_whenRatingChanges() {
+		suggester.put(book(3, "Hard Times", 5.0, 6));
+
+		assertEquals(List.of(3, 2, 4), ids(suggester.suggest("h", 10)));
+
+		// A late event with fewer reviews is ignored
+		suggester.put(book(3, "Hard Times", 1.0, 5));
+		assertEquals(List.of(3, 2, 4), ids(suggester.suggest("h", 10)));
+	}
+
+	@Test
+	void onBookDeleted_shouldRefillTopFromSubtree() {
+		suggester.onBookDeleted(new BookDeletedEvent(2));
+		suggester.onBookDeleted(new BookDeletedEvent(4));
+
+		assertEquals(List.of(1, 3), ids(suggester.suggest("har", 10)));
+		assertEquals(List.of(1), ids(suggester.suggest("harry potter and the", 10)));
+		assertTrue(suggester.suggest("harb", 10).isEmpty());
+	}
+
+	private static BookSummaryResponse book(int id, String title, double rating, int reviews) {
+		return new BookSummaryResponse(id, title, "author", rating, reviews);
+	}
+
+	private static List<Integer> ids(List<BookSummaryResponse> books) {
+		return books.stream().map(BookSummaryResponse::getBookId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,127 @@
+package com.bookstore.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bookstore.events.BookDeletedEvent;
+import com.bookstore.payload.response.BookSummaryResponse;
+import com.bookstore.repository.BookRepository;
+
+public class TopBooksLeaderboardTest {
+
+	private TopBooksLeaderboard leaderboard;
+
+	// Simulated rating index, kept in rank order by the test
+	private List<BookSummaryResponse> catalog;
+
+	@BeforeEach
+	public void setUp() {
+		catalog = new ArrayList<>();
+		BookRepository bookRepository = mock(BookRepository.class);
+		when(bookRepository.findTopBookSummaries(any(Pageable.class))).thenAnswer(invocation -> {
+			Pageable pageable = invocation.getArgument(0);
+			return catalog.stream()
+				.sorted(TopBooksLeaderboard.RANKING)
+				.limit(pageable.getPageSize())
+				.collect(Collectors.toList());
+		});
+
+		leaderboard = new TopBooksLeaderboard();
+		leaderboard.bookRepository = bookRepository;
+		ReflectionTestUtils.setField(leaderboard, "capacity", 4);
+	}
+
+	@Test
+	void top_shouldReturnNull_whenNotSeeded() {
+		assertNull(leaderboard.top(3));
+	}
+
+	@Test
+	void top_shouldRankByRatingThenReviewCount() {
+		save(1, 4.0, 2);
+		save(2, 4.5, 1);
+		save(3, 4.0, 5);
+		leaderboard.seed();
+
+		assertEquals(List.of(2, 3, 1), ids(leaderboard.top(3)));
+	}
+
+	@Test
+	void update_shouldMoveBookUpAndEvictLowest_whenRatingImproves() {
+		for (int id = 1; id <= 6; id++) {
+			save(id, id, 1);
+		}
+		leaderboard.seed();
+		assertEquals(List.of(6, 5, 4, 3), ids(leaderboard.top(4)));
+
+		leaderboard.update(save(1, 5.5, 2));
+
+		assertEquals(List.of(6, 1, 5, 4), ids(leaderboard.top(4)));
+	}
+
+	@Test
+	void update_shouldDropBook_whenItFallsBelowUntrackedBooks() {
+		for (int id = 1; id <= 6; id++) {
+			save(id, id, 1);
+		}
+		leaderboard.seed();
+
+		// Book 6 falls below untracked books 1 and 2, so it cannot stay ranked
+		leaderboard.update(save(6, 1.0, 2));
+
+		assertEquals(List.of(5, 4, 3), ids(leaderboard.top(3)));
+		assertNull(leaderboard.top(4)); // the fourth place is unknown without the database
+	}
+
+	@Test
+	void update_shouldIgnoreStaleEvent() {
+		save(1, 3.0, 1);
+		save(2, 4.0, 1);
+		leaderboard.seed();
+
+		leaderboard.update(save(1, 5.0, 3));
+		leaderboard.update(new BookSummaryResponse(1, "Book 1", "author", 1.0, 2));
+
+		assertEquals(List.of(1, 2), ids(leaderboard.top(2)));
+	}
+
+	@Test
+	void onBookDeleted_shouldReseed_whenTooFewBooksRemain() {
+		for (int id = 1; id <= 6; id++) {
+			save(id, id, 1);
+		}
+		leaderboard.seed();
+
+		for (int id = 6; id >= 4; id--) {
+			final int deleted = id;
+			catalog.removeIf(book -> book.getBookId() == deleted);
+			leaderboard.onBookDeleted(new BookDeletedEvent(deleted));
+		}
+
+		assertEquals(List.of(3, 2, 1), ids(leaderboard.top(3)));
+	}
+
+	// Stores the latest aggregates of a book in the simulated index
+	private BookSummaryResponse save(int bookId, double averageRating, int reviewCount) {
+		BookSummaryResponse book = new BookSummaryResponse(bookId, "Book " + bookId, "author", averageRating, reviewCount);
+		catalog.removeIf(existing -> existing.getBookId() == bookId);
+		catalog.add(book);
+		return book;
+	}
+
+	private List<Integer> ids(List<BookSummaryResponse> books) {
+		return books.stream().map(BookSummaryResponse::getBookId).collect(Collectors.toList());
+	}
+}
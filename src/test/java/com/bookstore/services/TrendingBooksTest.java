@@ -0,0 +1,92 @@
+package com.bookstore.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bookstore.events.BookDeletedEvent;
+import com.bookstore.events.ReviewSavedEvent;
+import com.bookstore.payload.response.BookSummaryResponse;
+import com.bookstore.payload.response.TrendingBookResponse;
+import com.bookstore.repository.BookRepository;
+
+public class TrendingBooksTest {
+
+	private TrendingBooks trendingBooks;
+
+	@BeforeEach
+	public void setUp() {
+		BookRepository bookRepository = mock(BookRepository.class);
+		when(bookRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+			Collection<Integer> bookIds = invocation.getArgument(0);
+			return bookIds.stream().map(TrendingBooksTest::summary).collect(Collectors.toList());
+		});
+
+		trendingBooks = new TrendingBooks();
+		trendingBooks.bookRepository = bookRepository;
+		ReflectionTestUtils.setField(trendingBooks, "hourBuckets", 60);
+		ReflectionTestUtils.setField(trendingBooks, "dayBuckets", 96);
+		ReflectionTestUtils.setField(trendingBooks, "topN", 3);
+		ReflectionTestUtils.setField(trendingBooks, "refreshMs", 3_600_000L);
+		trendingBooks.start();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		trendingBooks.stop();
+	}
+
+	@Test
+	void trending_shouldRankBooksByReviewsInTheWindow() {
+		review(1, 2);
+		review(2, 5);
+		review(3, 1);
+		review(4, 3);
+		assertTrue(trendingBooks.trending(TrendingBooks.HOUR, 3).isEmpty()); // not refreshed yet
+
+		trendingBooks.refresh();
+
+		List<TrendingBookResponse> hour = trendingBooks.trending(TrendingBooks.HOUR, 3);
+		assertEquals(List.of(2, 4, 1), hour.stream().map(TrendingBookResponse::getBookId).toList());
+		assertEquals(5, hour.get(0).getRecentReviews());
+		assertEquals("Book 2", hour.get(0).getTitle());
+		assertEquals(List.of(2, 4), trendingBooks.trending(TrendingBooks.DAY, 2).stream()
+			.map(TrendingBookResponse::getBookId).toList());
+	}
+
+	@Test
+	void onBookDeleted_shouldDropTheBookAtOnce() {
+		review(1, 2);
+		review(2, 1);
+		trendingBooks.refresh();
+
+		trendingBooks.onBookDeleted(new BookDeletedEvent(1));
+
+		assertEquals(List.of(2), trendingBooks.trending(TrendingBooks.HOUR, 3).stream()
+			.map(TrendingBookResponse::getBookId).toList());
+		trendingBooks.refresh();
+		assertEquals(1, trendingBooks.trending(TrendingBooks.DAY, 3).size());
+	}
+
+	private void review(int bookId, int times) {
+		for (int i = 0; i < times; i++) {
+			trendingBooks.onReviewSaved(new ReviewSavedEvent(summary(bookId), 1, LocalDateTime.now()));
+		}
+	}
+
+	private static BookSummaryResponse summary(int bookId) {
+		return new BookSummaryResponse(bookId, "Book " + bookId, "author", 4.0, 1);
+	}
+}
@@ -0,0 +1,59 @@
+package com.bookstore.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterTest {
+
+	@Test
+	void mightContain_shouldNeverMissAnAddedKey() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put(i + ":reader" + i);
+		}
+
+		for (int i = 0; i < 10_000; i++) {
+			assertTrue(filter.mightContain(i + ":reader" + i));
+		}
+		assertEquals(10_000, filter.getInsertions());
+	}
+
+	/**
+	 * The measured false positive rate stays close to the configured one,
+	 * which is also what the fill of the filter predicts.
+	 */
+	@Test
+	void mightContain_shouldMeetTheConfiguredFalsePositiveRate() {
+		for (double rate : new double[] { 0.05, 0.01, 0.001 }) {
+			BloomFilter filter = new BloomFilter(20_000, rate);
+			for (int i = 0; i < 20_000; i++) {
+				filter.put(i + ":reader" + (i % 500));
+			}
+
+			int falsePositives = 0;
+			int probes = 200_000;
+			for (int i = 0; i < probes; i++) {
+				if (filter.mightContain(i + ":absent" + (i % 500))) {
+					falsePositives++;
+				}
+			}
+			double measured = (double) falsePositives / probes;
+
+			assertTrue(measured < rate * 1.5, "measured " + measured + " for " + rate);
+			assertTrue(Math.abs(filter.getExpectedFalsePositiveRate() - rate) < rate * 0.5,
+				"expected " + filter.getExpectedFalsePositiveRate() + " for " + rate);
+		}
+	}
+
+	@Test
+	void put_shouldReportWhetherTheKeyWasNew() {
+		BloomFilter filter = new BloomFilter(100, 0.01);
+
+		assertTrue(filter.put("7:reader"));
+		assertFalse(filter.put("7:reader"));
+		assertFalse(new BloomFilter(100, 0.01).mightContain("7:reader"));
+	}
+}
@@ -0,0 +1,90 @@
+package com.bookstore.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bookstore.services.UserDetailsImpl;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+public class JwtUtilTest {
+
+	private static final String SECRET = "AbiBOuMB+Spring+++++++++++++++++++++++++++++++++++++++++++++++++";
+
+	private final JwtUtil jwtUtil = new JwtUtil();
+
+	private final Authentication authentication = new UsernamePasswordAuthenticationToken(
+		new UserDetailsImpl(42L, "alice", "hash", List.of(new SimpleGrantedAuthority("ADMIN"))), null);
+
+	@BeforeEach
+	public void setUp() {
+		ReflectionTestUtils.setField(jwtUtil, "SECRET_KEY", SECRET);
+		ReflectionTestUtils.setField(jwtUtil, "JWT_EXPIRATION", 86400000);
+		ReflectionTestUtils.setField(jwtUtil, "STATELESS_JWT_EXPIRATION", 900000);
+	}
+
+	@Test
+	public void testStatelessTokenCarriesThePrincipal() {
+		ReflectionTestUtils.setField(jwtUtil, "STATELESS_PRINCIPAL", true);
+
+		UserDetailsImpl principal = jwtUtil.getPrincipalFromJwtToken(jwtUtil.generateJwtToken(authentication));
+
+		assertEquals(42L, principal.getId());
+		assertEquals("alice", principal.getUsername());
+		assertNull(principal.getPassword());
+		assertEquals(List.of("ADMIN"), principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+	}
+
+	@Test
+	public void testStatelessTokensAreShortLived() {
+		ReflectionTestUtils.setField(jwtUtil, "STATELESS_PRINCIPAL", true);
+		long lifetime = lifetimeMs(jwtUtil.generateJwtToken(authentication));
+		ReflectionTestUtils.setField(jwtUtil, "STATELESS_PRINCIPAL", false);
+
+		assertEquals(900000, lifetime);
+		assertEquals(86400000, lifetimeMs(jwtUtil.generateJwtToken(authentication)));
+	}
+
+	@Test
+	public void testTokenWithoutRolesHasNoPrincipal() {
+		String token = jwtUtil.generateJwtToken(authentication);
+
+		assertNull(jwtUtil.getPrincipalFromJwtToken(token));
+		assertEquals("alice", jwtUtil.getUserNameFromJwtToken(token));
+	}
+
+	@Test
+	public void testTamperedStatelessTokenIsRejected() {
+		ReflectionTestUtils.setField(jwtUtil, "STATELESS_PRINCIPAL", true);
+		String token = jwtUtil.generateJwtToken(authentication);
+		String[] parts = token.split("\\.");
+		String forged = parts[0] + "." + parts[1].substring(0, parts[1].length() - 2) + "AA." + parts[2];
+
+		assertThrows(JwtException.class, () -> jwtUtil.getPrincipalFromJwtToken(forged));
+		assertNotNull(jwtUtil.getPrincipalFromJwtToken(token));
+	}
+
+	private long lifetimeMs(String token) {
+		var claims = Jwts.parserBuilder()
+			.setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+			.build()
+			.parseClaimsJws(token)
+			.getBody();
+		return claims.getExpiration().getTime() - claims.getIssuedAt().getTime();
+	}
+}
@@ -0,0 +1,90 @@
+package com.bookstore.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class SlidingWindowCounterTest {
+
+	// Ten buckets of one second, a ten second window
+	private final SlidingWindowCounter counter = new SlidingWindowCounter(1000, 10);
+
+	@Test
+	void count_shouldForgetEventsOnceTheyLeaveTheWindow() {
+		counter.increment(7, 1_000);
+		counter.increment(7, 5_500);
+		counter.increment(7, 9_999);
+
+		assertEquals(3, counter.count(7, 10_000));
+		assertEquals(2, counter.count(7, 11_000)); // the bucket of second 1 slid out
+		assertEquals(1, counter.count(7, 15_000));
+		assertEquals(0, counter.count(7, 60_000));
+	}
+
+	@Test
+	void increment_shouldIgnoreEventsOlderThanTheWindow() {
+		counter.increment(1, 20_000);
+		counter.increment(1, 5_000);
+		counter.increment(1, 15_000);
+
+		assertEquals(2, counter.count(1, 20_000));
+	}
+
+	@Test
+	void top_shouldRankByCountThenLowerKey() {
+		for (int i = 0; i < 3; i++) {
+			counter.increment(30, 1_000);
+		}
+		counter.increment(20, 1_000);
+		counter.increment(20, 1_000);
+		counter.increment(10, 1_000);
+		counter.increment(0, 1_000);
+		counter.increment(-5, 1_000);
+
+		assertEquals(List.of(30, 20, -5), keys(counter.top(3, 1_000)));
+		assertEquals(3, SlidingWindowCounter.countOf(counter.top(3, 1_000)[0]));
+	}
+
+	@Test
+	void remove_shouldDropEveryEventOfTheKey() {
+		counter.increment(4, 1_000);
+		counter.increment(5, 1_000);
+
+		counter.remove(4);
+
+		assertEquals(0, counter.count(4, 1_000));
+		assertEquals(List.of(5), keys(counter.top(10, 1_000)));
+	}
+
+	@Test
+	void increment_shouldKeepCountsWhileTheTableGrowsAndDropsIdleKeys() {
+		for (int key = 0; key < 1000; key++) {
+			counter.increment(key, 1_000);
+		}
+		for (int key = 0; key < 1000; key += 2) {
+			counter.increment(key, 5_000);
+		}
+
+		assertEquals(2, counter.count(998, 5_000));
+		assertEquals(1, counter.count(999, 5_000));
+
+		// Once the first second slid out, only even keys hold events and new keys reuse the table
+		for (int key = 1000; key < 1600; key++) {
+			counter.increment(key, 12_000);
+		}
+		assertEquals(1, counter.count(998, 12_000));
+		assertEquals(0, counter.count(999, 12_000));
+		assertEquals(1100, counter.size());
+	}
+
+	private static List<Integer> keys(long[] pairs) {
+		List<Integer> keys = new ArrayList<>();
+		for (long pair : pairs) {
+			keys.add(SlidingWindowCounter.keyOf(pair));
+		}
+		return keys;
+	}
+}